@@ -0,0 +1,102 @@
+package com.github.srilaxmi.filereader.benchmark;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Generates benchmark input files once and reuses them across forks and runs
+ */
+public final class BenchmarkFiles {
+
+    public static final String[] HEADERS = {"id", "name", "amount", "active", "createdAt", "tags"};
+
+    private static final Path DATA_DIR = Paths.get(System.getProperty("jmh.data.dir", "build/jmh-data"));
+
+    private BenchmarkFiles() {
+    }
+
+    public static Path csv(int rows) throws IOException {
+        return delimited(rows, ',', "csv");
+    }
+
+    public static Path tsv(int rows) throws IOException {
+        return delimited(rows, '\t', "tsv");
+    }
+
+    public static Path xlsx(int rows) throws IOException {
+
+        Path path = DATA_DIR.resolve("rows-" + rows + ".xlsx");
+
+        if (Files.exists(path)) {
+            return path;
+        }
+
+        Files.createDirectories(DATA_DIR);
+        Path tempPath = Files.createTempFile(DATA_DIR, "rows-" + rows, ".xlsx");
+
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000);
+             OutputStream outputStream = new FileOutputStream(tempPath.toFile())) {
+
+            Sheet sheet = workbook.createSheet("Sheet1");
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                headerRow.createCell(i).setCellValue(HEADERS[i]);
+            }
+
+            for (int rowNumber = 1; rowNumber <= rows; rowNumber++) {
+                Row row = sheet.createRow(rowNumber);
+                row.createCell(0).setCellValue(rowNumber);
+                row.createCell(1).setCellValue("name-" + rowNumber);
+                row.createCell(2).setCellValue(rowNumber * 1.25);
+                row.createCell(3).setCellValue(rowNumber % 2 == 0);
+                row.createCell(4).setCellValue("2024-01-01T10:15:30.000Z");
+                row.createCell(5).setCellValue("[a, b, c]");
+            }
+
+            workbook.write(outputStream);
+            workbook.dispose();
+        }
+
+        return Files.move(tempPath, path);
+    }
+
+    private static Path delimited(int rows, char delimiter, String extension) throws IOException {
+
+        Path path = DATA_DIR.resolve("rows-" + rows + "." + extension);
+
+        if (Files.exists(path)) {
+            return path;
+        }
+
+        Files.createDirectories(DATA_DIR);
+        Path tempPath = Files.createTempFile(DATA_DIR, "rows-" + rows, "." + extension);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tempPath)) {
+
+            writer.write(String.join(String.valueOf(delimiter), HEADERS));
+            writer.newLine();
+
+            for (int rowNumber = 1; rowNumber <= rows; rowNumber++) {
+                writer.write(rowNumber + "" + delimiter
+                        + "name-" + rowNumber + delimiter
+                        + (rowNumber * 1.25) + delimiter
+                        + (rowNumber % 2 == 0) + delimiter
+                        + "2024-01-01T10:15:30.000Z" + delimiter
+                        + "\"[a, b, c]\"");
+                writer.newLine();
+            }
+        }
+
+        return Files.move(tempPath, path);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.github.srilaxmi.filereader.benchmark;
+
+import com.github.srilaxmi.filereader.constants.DataType;
+import com.github.srilaxmi.filereader.util.DataTypeUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each benchmark takes a state declaring only the params it reads, so none of them runs once per unused combination
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataTypeBenchmark {
+
+    private static final Map<DataType, String> SAMPLE_VALUES = Map.of(
+            DataType.NUMBER, "1,234.50",
+            DataType.BOOLEAN, "true",
+            DataType.JSON, "{\"key\": \"value\"}",
+            DataType.DOCUMENT, "{\"key\": \"value\", \"count\": 2}",
+            DataType.NUMBER_ARRAY, "[1, 2.5, 3]",
+            DataType.STRING_ARRAY, "[a, b, c]",
+            DataType.DATE, "2024-01-01T10:15:30.000Z",
+            DataType.STRING, "plain text",
+            DataType.GEOCODE, "12.9716,77.5946"
+    );
+
+    @State(Scope.Benchmark)
+    public static class ValueState {
+
+        @Param({"1234", "1,234.50", "true", "2024-01-01T10:15:30.000Z", "[1, 2, 3]", "plain text", ""})
+        public String value;
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class ConversionState {
+
+        @Param({"NUMBER", "BOOLEAN", "JSON", "DOCUMENT", "NUMBER_ARRAY", "STRING_ARRAY", "DATE", "STRING", "GEOCODE"})
+        public DataType dataType;
+
+        private String convertValue;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            convertValue = SAMPLE_VALUES.get(dataType);
+        }
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class ValidationState {
+
+        @Param({"1234", "1,234.50", "true", "2024-01-01T10:15:30.000Z", "[1, 2, 3]", "plain text", ""})
+        public String value;
+
+        @Param({"NUMBER", "BOOLEAN", "JSON", "DOCUMENT", "NUMBER_ARRAY", "STRING_ARRAY", "DATE", "STRING", "GEOCODE"})
+        public DataType dataType;
+
+    }
+
+    @Benchmark
+    public DataType findDataTypeForValue(ValueState state) {
+        return DataTypeUtil.findDataTypeForValue(state.value);
+    }
+
+    @Benchmark
+    public Boolean isValid(ValidationState state) {
+        return state.dataType.isValid(state.value, null, Boolean.FALSE);
+    }
+
+    @Benchmark
+    public Object convert(ConversionState state) {
+        return state.dataType.convert(state.convertValue);
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.github.srilaxmi.filereader.benchmark;
+
+import com.github.srilaxmi.filereader.service.AsposeFileReader;
+import com.github.srilaxmi.filereader.service.CSVFileReader;
+import com.github.srilaxmi.filereader.service.FileContentReader;
+import com.github.srilaxmi.filereader.service.MappedCsvFileReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV and TSV reading through FileContentReader on generated files
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DelimitedFileReaderBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private String csvPath;
+    private String tsvPath;
+
+    @Setup(Level.Trial)
+    public void generateFiles() throws IOException {
+        csvPath = BenchmarkFiles.csv(rows).toString();
+        tsvPath = BenchmarkFiles.tsv(rows).toString();
+    }
+
+    @Benchmark
+    public long readCsv(RowCounter rowCounter) {
+        return readAllRows(new CSVFileReader(), csvPath, rowCounter);
+    }
+
+    @Benchmark
+    public long readMappedCsv(RowCounter rowCounter) {
+        return readAllRows(new MappedCsvFileReader(), csvPath, rowCounter);
+    }
+
+    @Benchmark
+    public long readTsv(RowCounter rowCounter) {
+        return readAllRows(new AsposeFileReader(), tsvPath, rowCounter);
+    }
+
+    static long readAllRows(FileContentReader reader, String path, RowCounter rowCounter) {
+
+        reader.initialize(path, null).block();
+        long count = reader.getAllRows().count().blockOptional().orElse(0L);
+        rowCounter.rows += count;
+        return count;
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.github.srilaxmi.filereader.benchmark;
+
+import com.github.srilaxmi.filereader.constants.Operator;
+import com.github.srilaxmi.filereader.util.FilterRuleCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OperatorBenchmark {
+
+    private static final List<String> IN_VALUES = IntStream.range(0, 100)
+            .mapToObj(index -> "value-" + index)
+            .collect(Collectors.toList());
+
+    @Param({"EQUALS", "NOT_EQUALS", "CONTAINS", "NOT_CONTAINS", "NOT_EMPTY", "IS_EMPTY", "STARTS_WITH",
+            "ENDS_WITH", "NOT_STARTS_WITH", "NOT_ENDS_WITH", "GREATER_THAN", "LESS_THAN", "GREATER_THAN_EQUALS",
+            "LESS_THAN_EQUALS", "IS_IN", "IS_NOT_IN"})
+    public Operator operator;
+
+    private Object lhsValue;
+    private Object rhsValue;
+    private Predicate<Object> compiledPredicate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        switch (operator) {
+            case GREATER_THAN:
+            case LESS_THAN:
+            case GREATER_THAN_EQUALS:
+            case LESS_THAN_EQUALS:
+                lhsValue = 1234.5;
+                rhsValue = "1000";
+                break;
+            case IS_IN:
+            case IS_NOT_IN:
+                lhsValue = "value-99";
+                rhsValue = IN_VALUES;
+                break;
+            default:
+                lhsValue = "value-with-some-text";
+                rhsValue = "value";
+        }
+
+        compiledPredicate = FilterRuleCompiler.compileValuePredicate(operator, rhsValue);
+    }
+
+    @Benchmark
+    public Boolean apply() {
+        return operator.apply(lhsValue, rhsValue);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiledPredicate.test(lhsValue);
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.github.srilaxmi.filereader.benchmark;
+
+import com.github.srilaxmi.filereader.util.RawBsonRowEncoder;
+import com.mongodb.MongoClientSettings;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.srilaxmi.filereader.constants.GlobalConstants.BATCH_SIZE;
+
+/**
+ * Client side cost of turning a batch of rows into BSON, through the mapping converter and the driver codec as
+ * saveMany does, and through RawBsonRowEncoder as the raw-bson ingestion mode does
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RowEncodingBenchmark {
+
+    @Param({"20", "60"})
+    public int columns;
+
+    private List<Document> rows;
+    private MappingMongoConverter mappingMongoConverter;
+    private DocumentCodec documentCodec;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        List<String> headers = new ArrayList<>();
+        for (int column = 0; column < columns; column++) {
+            headers.add("column_" + column);
+        }
+
+        rows = new ArrayList<>(BATCH_SIZE);
+        for (int rowNumber = 0; rowNumber < BATCH_SIZE; rowNumber++) {
+            Document row = new Document();
+            for (int column = 0; column < columns; column++) {
+                switch (column % 4) {
+                    case 0:
+                        row.put(headers.get(column), "value " + rowNumber + " " + column);
+                        break;
+                    case 1:
+                        row.put(headers.get(column), rowNumber * 1.5);
+                        break;
+                    case 2:
+                        row.put(headers.get(column), (long) rowNumber * column);
+                        break;
+                    default:
+                        row.put(headers.get(column), new Date(1_700_000_000_000L + rowNumber));
+                }
+            }
+            rows.add(row);
+        }
+
+        mappingMongoConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        mappingMongoConverter.afterPropertiesSet();
+        documentCodec = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+    }
+
+    @Benchmark
+    public List<RawBsonDocument> mappingConverter() {
+
+        List<RawBsonDocument> documents = new ArrayList<>(rows.size());
+
+        for (Document row : rows) {
+            Document converted = new Document();
+            mappingMongoConverter.write(row, converted);
+            documents.add(new RawBsonDocument(converted, documentCodec));
+        }
+
+        return documents;
+    }
+
+    @Benchmark
+    public List<RawBsonDocument> rawBsonRowEncoder() {
+
+        return new RawBsonRowEncoder().encode(rows);
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.github.srilaxmi.filereader.benchmark;
+
+import com.github.srilaxmi.filereader.service.ApacheFileReader;
+import com.github.srilaxmi.filereader.service.AsposeFileReader;
+import com.github.srilaxmi.filereader.service.StreamingXlsxFileReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XLSX reading through each FileContentReader. A worksheet holds at most 1,048,576 rows,
+ * so the 10M row size only applies to the delimited benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpreadsheetReaderBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private String xlsxPath;
+
+    @Setup(Level.Trial)
+    public void generateFiles() throws IOException {
+        xlsxPath = BenchmarkFiles.xlsx(rows).toString();
+    }
+
+    @Benchmark
+    public long readXlsxWithApache(RowCounter rowCounter) {
+        return DelimitedFileReaderBenchmark.readAllRows(new ApacheFileReader(), xlsxPath, rowCounter);
+    }
+
+    @Benchmark
+    public long readXlsxWithAspose(RowCounter rowCounter) {
+        return DelimitedFileReaderBenchmark.readAllRows(new AsposeFileReader(), xlsxPath, rowCounter);
+    }
+
+    @Benchmark
+    public long readXlsxWithStreaming(RowCounter rowCounter) {
+        return DelimitedFileReaderBenchmark.readAllRows(new StreamingXlsxFileReader(), xlsxPath, rowCounter);
+    }
+
+}
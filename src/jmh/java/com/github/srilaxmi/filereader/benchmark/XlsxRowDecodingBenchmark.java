@@ -0,0 +1,110 @@
+package com.github.srilaxmi.filereader.benchmark;
+
+import com.github.srilaxmi.filereader.service.ApacheFileReader;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row decoding of an already loaded XLSX sheet, so gc.alloc.rate.norm reflects per row decoding only.
+ * legacyDecode keeps the former two pass decoding with a DataFormatter per row as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class XlsxRowDecodingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private XSSFWorkbook workbook;
+    private List<String> headers;
+
+    @Setup(Level.Trial)
+    public void loadWorkbook() throws IOException {
+
+        try (InputStream inputStream = new FileInputStream(BenchmarkFiles.xlsx(rows).toFile())) {
+            workbook = new XSSFWorkbook(inputStream);
+        }
+
+        headers = new ArrayList<>();
+        for (Cell cell : workbook.getSheetAt(0).getRow(0)) {
+            headers.add(cell.getStringCellValue());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeWorkbook() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public long fusedDecode(RowCounter rowCounter) {
+        return DelimitedFileReaderBenchmark.readAllRows(new ApacheFileReader(workbook), null, rowCounter);
+    }
+
+    @Benchmark
+    public long legacyDecode(RowCounter rowCounter, Blackhole blackhole) {
+
+        XSSFSheet sheet = workbook.getSheetAt(0);
+        Iterator<Row> rowIterator = sheet.iterator();
+        rowIterator.next();
+        long count = 0;
+
+        while (rowIterator.hasNext()) {
+            XSSFRow row = (XSSFRow) rowIterator.next();
+            if (!isRowEmpty(row)) {
+                blackhole.consume(generateDocument(row, headers));
+                count++;
+            }
+        }
+
+        rowCounter.rows += count;
+        return count;
+    }
+
+    private static boolean isRowEmpty(XSSFRow row) {
+
+        for (int i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
+            Cell cell = row.getCell(i, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+            if (cell != null && cell.getCellType() != CellType.BLANK) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Document generateDocument(XSSFRow row, List<String> columns) {
+
+        Document rowData = new Document();
+        DataFormatter formatter = new DataFormatter();
+
+        for (int j = 0; j < columns.size(); j++) {
+            try {
+                Cell cell = row.getCell(j);
+                String column = columns.get(j);
+                rowData.put(column, cell != null ? formatter.formatCellValue(cell).strip() : "");
+            } catch (NullPointerException e) {
+                rowData.put(columns.get(j), "");
+            }
+        }
+
+        return rowData;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.github.srilaxmi.filereader.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    public static final String FILE_READER_SCHEDULER = "fileReaderScheduler";
+
+    private static final Integer QUEUED_TASK_CAP = 10_000;
+
+    @Value("${filereader.io.thread-cap:8}")
+    private Integer threadCap;
+
+    /**
+     * Bounded pool for blocking file reads so that reader iterators never run on the netty event loop
+     */
+    @Bean(name = FILE_READER_SCHEDULER, destroyMethod = "dispose")
+    public Scheduler fileReaderScheduler() {
+        return Schedulers.newBoundedElastic(threadCap, QUEUED_TASK_CAP, "file-reader");
+    }
+
+}
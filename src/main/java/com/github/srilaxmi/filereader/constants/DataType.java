@@ -34,11 +34,8 @@ public enum DataType implements DataTypeStrategy {
         }
 
         @Override
-        public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
-
-            Validator numberValidator = new NumberValidator(validationRegex);
-            return numberValidator.isValid(value, strictCheck);
-
+        public Validator createValidator(String validationRegex) {
+            return new NumberValidator(validationRegex);
         }
     },
     BOOLEAN {
@@ -54,9 +51,8 @@ public enum DataType implements DataTypeStrategy {
         }
 
         @Override
-        public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
-            Validator booleanValidator = new BooleanValidator();
-            return booleanValidator.isValid(value, strictCheck);
+        public Validator createValidator(String validationRegex) {
+            return new BooleanValidator();
         }
     },
     JSON {
@@ -74,9 +70,8 @@ public enum DataType implements DataTypeStrategy {
         }
 
         @Override
-        public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
-            Validator jsonValidator = new JsonValidator();
-            return jsonValidator.isValid(value, strictCheck);
+        public Validator createValidator(String validationRegex) {
+            return new JsonValidator();
         }
     },
     DOCUMENT {
@@ -94,9 +89,8 @@ public enum DataType implements DataTypeStrategy {
         }
 
         @Override
-        public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
-            Validator documentValidator = new DocumentValidator();
-            return documentValidator.isValid(value, strictCheck);
+        public Validator createValidator(String validationRegex) {
+            return new DocumentValidator();
         }
     },
     NUMBER_ARRAY {
@@ -117,9 +111,8 @@ public enum DataType implements DataTypeStrategy {
         }
 
         @Override
-        public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
-            Validator numberArrayValidator = new NumberArrayValidator();
-            return numberArrayValidator.isValid(value, strictCheck);
+        public Validator createValidator(String validationRegex) {
+            return new NumberArrayValidator();
         }
     },
     STRING_ARRAY {
@@ -139,9 +132,8 @@ public enum DataType implements DataTypeStrategy {
         }
 
         @Override
-        public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
-            Validator stringArrayValidator = new StringArrayValidator();
-            return stringArrayValidator.isValid(value, strictCheck);
+        public Validator createValidator(String validationRegex) {
+            return new StringArrayValidator();
         }
     },
     DATE {
@@ -161,9 +153,8 @@ public enum DataType implements DataTypeStrategy {
         }
 
         @Override
-        public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
-            Validator dateValidator = new DateValidator(DateTimeFormatter.ISO_INSTANT);
-            return dateValidator.isValid(value, strictCheck);
+        public Validator createValidator(String validationRegex) {
+            return new DateValidator(DateTimeFormatter.ISO_INSTANT);
         }
     },
     STRING {
@@ -189,9 +180,8 @@ public enum DataType implements DataTypeStrategy {
         }
 
         @Override
-        public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
-            StringValidator stringValidator = new StringValidator(validationRegex);
-            return stringValidator.isValid(value, strictCheck);
+        public Validator createValidator(String validationRegex) {
+            return new StringValidator(validationRegex);
         }
     },
     GEOCODE {
@@ -207,9 +197,18 @@ public enum DataType implements DataTypeStrategy {
         }
 
         @Override
-        public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
-            return true;
+        public Validator createValidator(String validationRegex) {
+            return (value, strictCheck) -> true;
         }
+    };
+
+    /**
+     * Validators are cached per data type, regex and strictness, so validating a value allocates nothing
+     */
+    @Override
+    public Boolean isValid(Object value, String validationRegex, Boolean strictCheck) {
+
+        return ValidatorRegistry.getValidator(this, validationRegex, strictCheck).test(value);
     }
 
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.github.srilaxmi.filereader.constants;
 
+import com.github.srilaxmi.filereader.validations.Validator;
+
 import java.util.List;
 
 public interface DataTypeStrategy {
@@ -10,4 +12,9 @@ public interface DataTypeStrategy {
 
     Boolean isValid(Object value, String validationRegex, Boolean strictCheck);
 
+    /**
+     * @return a validator for the regex, instances are cached and shared across threads by ValidatorRegistry
+     */
+    Validator createValidator(String validationRegex);
+
 }
@@ -0,0 +1,7 @@
+package com.github.srilaxmi.filereader.constants;
+
+public enum DuplicateDetection {
+
+    HASH_SET,
+    BLOOM_FILTER
+}
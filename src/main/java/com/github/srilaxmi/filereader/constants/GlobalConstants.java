@@ -3,9 +3,13 @@ package com.github.srilaxmi.filereader.constants;
 public class GlobalConstants {
 
     public static final Integer BATCH_SIZE = 5000;
+    public static final Integer MAX_BULK_WRITE_DOCUMENTS = 100000;
+    public static final String IMPORT_CHECKPOINTS_COLLECTION = "import_checkpoints";
     public static final String AGGREGATE_TOTAL = "total";
     public static final String ID = "id";
     public static final String _ID = "_id";
+    public static final String SHEET_FIELD = "_sheet";
+    public static final String REJECTS_COLLECTION_SUFFIX = "_rejects";
     public static final String[] HEADERS = {"name"};
     public static final String TRAILING_NON_BREAKING_SPACES_COMMA_REMOVER_REGEX = " |&nbsp;|[ \\s\\u00A0]+$|,";
     public static final String EMPTY_STRING = "";
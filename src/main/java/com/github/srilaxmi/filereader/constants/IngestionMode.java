@@ -0,0 +1,7 @@
+package com.github.srilaxmi.filereader.constants;
+
+public enum IngestionMode {
+
+    ORDERED,
+    UNORDERED_BULK
+}
@@ -0,0 +1,7 @@
+package com.github.srilaxmi.filereader.constants;
+
+public enum SheetTarget {
+
+    COLLECTION_PER_SHEET,
+    SHEET_FIELD
+}
@@ -2,6 +2,8 @@ package com.github.srilaxmi.filereader.constants;
 
 public enum UploadStatus {
 
+    IN_PROGRESS,
     SUCCESS,
-    FAILURE
+    FAILURE,
+    CANCELLED
 }
@@ -0,0 +1,31 @@
+package com.github.srilaxmi.filereader.controller;
+
+import com.github.srilaxmi.filereader.mongo.MongoQueryService;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/collections")
+public class CollectionController {
+
+    @Autowired
+    private MongoQueryService mongoQueryService;
+
+    /**
+     * @param keys: comma separated fields forming the key
+     * @return only the duplicated keys, each with its number of documents
+     */
+    @GetMapping("/{collection}/duplicates")
+    public Flux<Document> getDuplicateKeys(
+            @PathVariable String collection,
+            @RequestParam List<String> keys
+    ) {
+
+        return mongoQueryService.getDuplicateKeyCounts(keys, collection);
+    }
+
+}
@@ -1,42 +1,83 @@
 package com.github.srilaxmi.filereader.controller;
 
+import com.github.srilaxmi.filereader.dto.ExportRequest;
 import com.github.srilaxmi.filereader.service.FileDownloadService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 @RestController
 @RequestMapping("/api/v1/file-download")
+@Slf4j
 public class FileDownloadController {
 
-    private static final String FILE_NAME = "src/main/resources/Files/File.csv";
+    private static final String FILE_NAME = "File.csv";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final int FILE_READ_BUFFER_SIZE = 8192;
 
     @Autowired
     private FileDownloadService fileDownloadService;
 
+    /**
+     * Every request writes to its own temp file, which is removed once the response has been sent
+     */
     @PostMapping("/{field}/generate-file")
-    public Mono<ResponseEntity<Resource>> generateAndDownloadFile() {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> generateAndDownloadFile(ServerHttpResponse response) {
 
-        return fileDownloadService.generateFile(FILE_NAME)
-                .flatMap(fileCreated -> Mono.just(new FileSystemResource(FILE_NAME)))
+        return Mono.fromCallable(() -> Files.createTempFile("file-download-", ".csv"))
                 .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(resource -> {
-                    HttpHeaders headers = new HttpHeaders();
-                    headers.setContentDispositionFormData(resource.getFilename(), resource.getFilename());
-                    return Mono.just(
-                            ResponseEntity
-                                    .ok()
-                                    .cacheControl(CacheControl.noCache())
-                                    .headers(headers)
-                                    .body(resource)
-                    );
-                });
+                .flatMap(filePath -> fileDownloadService.generateFile(filePath.toString())
+                        .map(fileCreated -> ResponseEntity
+                                .ok()
+                                .cacheControl(CacheControl.noCache())
+                                .headers(getAttachmentHeaders(FILE_NAME))
+                                .body(DataBufferUtils.read(filePath, response.bufferFactory(), FILE_READ_BUFFER_SIZE)
+                                        .doFinally(signalType -> deleteQuietly(filePath))))
+                        .doOnError(e -> deleteQuietly(filePath)));
+    }
+
+    @PostMapping("/{collection}/export")
+    public ResponseEntity<Flux<DataBuffer>> exportCollection(@PathVariable String collection,
+                                                             @RequestBody(required = false) ExportRequest exportRequest,
+                                                             ServerHttpResponse response) {
+
+        return ResponseEntity
+                .ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(TEXT_CSV)
+                .headers(getAttachmentHeaders(collection + ".csv"))
+                .body(fileDownloadService.exportCollectionAsCsv(collection, exportRequest, response.bufferFactory()));
+    }
+
+    private HttpHeaders getAttachmentHeaders(String fileName) {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment().filename(fileName).build());
+        return headers;
+    }
+
+    private void deleteQuietly(Path filePath) {
+
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            log.warn("{} :: Could not delete generated file", filePath);
+        }
     }
 
 }
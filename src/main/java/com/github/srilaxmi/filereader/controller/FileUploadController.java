@@ -1,28 +1,74 @@
 package com.github.srilaxmi.filereader.controller;
 
-import com.github.srilaxmi.filereader.service.BatchOperationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.srilaxmi.filereader.constants.FileExtension;
+import com.github.srilaxmi.filereader.constants.SheetTarget;
+import com.github.srilaxmi.filereader.dto.ColumnProjection;
+import com.github.srilaxmi.filereader.dto.ColumnValidation;
+import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.dto.FileUploadStatus;
+import com.github.srilaxmi.filereader.dto.WorkbookMetadata;
+import com.github.srilaxmi.filereader.service.FileExtractionService;
+import com.github.srilaxmi.filereader.service.ImportJob;
+import com.github.srilaxmi.filereader.service.ImportJobService;
 import com.github.srilaxmi.filereader.util.FileParseUtil;
+import com.github.srilaxmi.filereader.util.WorkbookMetadataUtil;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/file-upload")
 public class FileUploadController {
 
+    private static final String VALIDATION_SCHEMA_PART = "validationSchema";
+    private static final String UNIQUE_KEY_PART = "uniqueKey";
+    private static final String COLUMNS_PART = "columns";
+    private static final String COLUMN_RENAMES_PART = "columnRenames";
+
+    @Autowired
+    private ImportJobService importJobService;
+
     @Autowired
-    private BatchOperationService batchOperationService;
+    private FileExtractionService fileExtractionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Value("${fileuploadpath}")
     private String fileUploadPath;
 
+    private final DefaultPartHttpMessageReader streamingPartReader = createStreamingPartReader();
+
     @PostMapping("/preprocess/sheet-names")
     public Mono<List<String>> uploadFileForPreProcessing(
             @RequestPart Mono<FilePart> file
@@ -45,14 +91,85 @@ public class FileUploadController {
         );
     }
 
+    /**
+     * Sheet names, dimensions and header preview of a workbook, or of every workbook in a zip, without loading cell data
+     */
+    @PostMapping("/preprocess/metadata")
+    public Mono<List<WorkbookMetadata>> uploadFileForMetadata(
+            @RequestPart Mono<FilePart> file
+    ) {
+
+        final Path basePath = Paths.get(fileUploadPath);
+        return file
+                .flatMap(fp -> {
+                    String fileName = fp.filename();
+                    Path path = basePath.resolve(fileName);
+                    return fp.transferTo(path).thenReturn(path);
+                })
+                .flatMap(path -> Mono.fromCallable(() -> WorkbookMetadataUtil.getMetadata(path.toString()))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * Rows offset to offset + limit of a file or sheet, counted from the first data row and skipping empty rows as imports do
+     */
+    @PostMapping("/preprocess/rows")
+    public Mono<List<Document>> uploadFileForRowPreview(
+            @RequestPart Mono<FilePart> file,
+            @RequestPart(required = false) String sheetName,
+            @RequestParam(defaultValue = "0") Long offset,
+            @RequestParam(defaultValue = "50") Long limit
+    ) {
+
+        return transferPreviewFile(file)
+                .flatMap(path -> fileExtractionService.getRowRange(path.toString(), sheetName, offset, limit)
+                        .map(FileRow::getRow)
+                        .collectList())
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * @param seed: optional, the same seed returns the same sample of an unchanged file
+     */
+    @PostMapping("/preprocess/sample")
+    public Mono<List<Document>> uploadFileForRowSample(
+            @RequestPart Mono<FilePart> file,
+            @RequestPart(required = false) String sheetName,
+            @RequestParam(defaultValue = "50") Integer size,
+            @RequestParam(required = false) Long seed
+    ) {
+
+        return transferPreviewFile(file)
+                .flatMap(path -> fileExtractionService.getRowSample(path.toString(), sheetName, size, seed)
+                        .map(FileRow::getRow)
+                        .collectList())
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * @param validationSchema: optional json list of ColumnValidation, failing rows go to the {collection}_rejects collection
+     * @param uniqueKey: optional comma separated key columns, rows repeating an earlier key go to the rejects collection
+     * @param columns: optional comma separated headers of the columns to import, all columns when absent
+     * @param columnRenames: optional json object of header to field name, validations and keys use the field names
+     * @param resume: false imports the file from the first row even if an earlier import of it left a checkpoint
+     */
     @PostMapping("/{collection}")
-    public Mono<Boolean> uploadFileRequiredForMigrations(
+    public Mono<FileUploadStatus> uploadFileRequiredForMigrations(
             @PathVariable String collection,
             @RequestPart Mono<FilePart> file,
-            @RequestPart(required = false) String sheetName
+            @RequestPart(required = false) String sheetName,
+            @RequestPart(required = false) String validationSchema,
+            @RequestPart(required = false) String uniqueKey,
+            @RequestPart(required = false) String columns,
+            @RequestPart(required = false) String columnRenames,
+            @RequestParam(defaultValue = "true") Boolean resume
     ) {
 
         final Path basePath = Paths.get(fileUploadPath);
+        List<ColumnValidation> columnValidations = getColumnValidations(validationSchema);
+        List<String> uniqueKeyColumns = splitList(uniqueKey);
+        ColumnProjection columnProjection = getColumnProjection(columns, columnRenames);
 
         return file
                 .flatMap(fp -> {
@@ -60,15 +177,189 @@ public class FileUploadController {
                     Path path = basePath.resolve(fileName);
                     return fp.transferTo(path).thenReturn(path);
                 })
-                .flatMap(path -> {
-                    try {
-                        batchOperationService.saveFileDataToCollection(path.toString(), sheetName, collection).subscribe();
-                        return Mono.just(Boolean.TRUE);
-                    } catch (IOException e) {
-                        return Mono.error(e);
+                .map(path -> importJobService
+                        .startImport(path.toString(), sheetName, collection, columnValidations, uniqueKeyColumns, columnProjection, resume)
+                        .toFileUploadStatus());
+    }
+
+    /**
+     * Imports a CSV or TSV file while it is still being uploaded, rows are written as they arrive and the file is
+     * never stored under fileuploadpath. Parts are read in the order they are sent, so the optional validationSchema,
+     * uniqueKey, columns and columnRenames parts have to precede the file part. The response is sent once the import has completed.
+     */
+    @PostMapping(value = "/{collection}/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<FileUploadStatus> streamFileRequiredForMigrations(
+            @PathVariable String collection,
+            ServerHttpRequest request
+    ) {
+
+        Map<String, String> formFields = new HashMap<>();
+
+        return streamingPartReader.read(ResolvableType.forClass(Part.class), request, Map.of())
+                .concatMap(part -> {
+                    if (part instanceof FilePart) {
+                        return streamFilePart((FilePart) part, collection,
+                                getColumnValidations(formFields.get(VALIDATION_SCHEMA_PART)), splitList(formFields.get(UNIQUE_KEY_PART)),
+                                getColumnProjection(formFields.get(COLUMNS_PART), formFields.get(COLUMN_RENAMES_PART)));
                     }
+                    return DataBufferUtils.join(part.content())
+                            .doOnNext(dataBuffer -> {
+                                formFields.put(part.name(), dataBuffer.toString(StandardCharsets.UTF_8));
+                                DataBufferUtils.release(dataBuffer);
+                            })
+                            .then(Mono.empty());
+                })
+                .next()
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing file part")));
+    }
+
+    private Mono<FileUploadStatus> streamFilePart(
+            FilePart filePart, String collection, List<ColumnValidation> columnValidations, List<String> uniqueKeyColumns,
+            ColumnProjection columnProjection
+    ) {
+
+        String fileExtension = FilenameUtils.getExtension(filePart.filename()).toUpperCase(Locale.ROOT);
+
+        if (!FileExtension.CSV.name().equals(fileExtension) && !FileExtension.TSV.name().equals(fileExtension)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only CSV and TSV files can be streamed : " + filePart.filename()));
+        }
+
+        ImportJob importJob = importJobService.startStreamingImport(
+                filePart.filename(), filePart.content(), collection, columnValidations, uniqueKeyColumns, columnProjection);
+
+        return importJob.awaitCompletion()
+                .then(Mono.fromSupplier(importJob::toFileUploadStatus));
+    }
+
+    /**
+     * @param sheetNames: comma separated sheets to import, all sheets of the workbook when absent
+     * @param sheetTarget: COLLECTION_PER_SHEET writes each sheet to collection_sheetName, SHEET_FIELD tags rows in one collection
+     */
+    @PostMapping("/{collection}/sheets")
+    public Mono<FileUploadStatus> uploadWorkbookSheets(
+            @PathVariable String collection,
+            @RequestPart Mono<FilePart> file,
+            @RequestPart(required = false) String sheetNames,
+            @RequestPart(required = false) String sheetTarget,
+            @RequestPart(required = false) String validationSchema,
+            @RequestPart(required = false) String uniqueKey,
+            @RequestPart(required = false) String columns,
+            @RequestPart(required = false) String columnRenames
+    ) {
+
+        final Path basePath = Paths.get(fileUploadPath);
+        List<ColumnValidation> columnValidations = getColumnValidations(validationSchema);
+        List<String> uniqueKeyColumns = splitList(uniqueKey);
+        ColumnProjection columnProjection = getColumnProjection(columns, columnRenames);
+        List<String> selectedSheets = splitList(sheetNames);
+        SheetTarget target = getSheetTarget(sheetTarget);
+
+        return file
+                .flatMap(fp -> {
+                    String fileName = fp.filename();
+                    Path path = basePath.resolve(fileName);
+                    return fp.transferTo(path).thenReturn(path);
+                })
+                .map(path -> importJobService
+                        .startWorkbookImport(path.toString(), selectedSheets, collection, target, columnValidations, uniqueKeyColumns, columnProjection)
+                        .toFileUploadStatus());
+    }
+
+    private Mono<Path> transferPreviewFile(Mono<FilePart> file) {
+
+        final Path basePath = Paths.get(fileUploadPath);
+        return file
+                .flatMap(fp -> {
+                    String fileName = fp.filename();
+                    Path path = basePath.resolve(fileName);
+                    return fp.transferTo(path).thenReturn(path);
                 });
     }
 
+    private static DefaultPartHttpMessageReader createStreamingPartReader() {
+
+        DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+        partReader.setStreaming(true);
+
+        return partReader;
+    }
+
+    private List<String> splitList(String commaSeparated) {
+
+        return StringUtils.isBlank(commaSeparated) ? List.of() :
+                Arrays.stream(commaSeparated.split(",")).map(String::strip).collect(Collectors.toList());
+    }
+
+    private ColumnProjection getColumnProjection(String columns, String columnRenames) {
+
+        if (StringUtils.isBlank(columnRenames)) {
+            return ColumnProjection.builder().columns(splitList(columns)).build();
+        }
+
+        try {
+            Map<String, String> renames = objectMapper.readValue(columnRenames, new TypeReference<Map<String, String>>() {});
+            return ColumnProjection.builder().columns(splitList(columns)).renames(renames).build();
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid column renames : " + e.getOriginalMessage());
+        }
+    }
+
+    private SheetTarget getSheetTarget(String sheetTarget) {
+
+        if (StringUtils.isBlank(sheetTarget)) {
+            return SheetTarget.COLLECTION_PER_SHEET;
+        }
+
+        try {
+            return SheetTarget.valueOf(sheetTarget.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid sheet target : " + sheetTarget + ", expected one of " + Arrays.toString(SheetTarget.values()));
+        }
+    }
+
+    private List<ColumnValidation> getColumnValidations(String validationSchema) {
+
+        if (StringUtils.isBlank(validationSchema)) {
+            return List.of();
+        }
+
+        List<ColumnValidation> columnValidations;
+
+        try {
+            columnValidations = objectMapper.readValue(validationSchema, new TypeReference<List<ColumnValidation>>() {});
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid validation schema : " + e.getOriginalMessage());
+        }
+
+        if (Objects.isNull(columnValidations)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid validation schema : expected a list of column validations");
+        }
+
+        for (int i = 0; i < columnValidations.size(); i++) {
+            ColumnValidation columnValidation = columnValidations.get(i);
+            if (Objects.isNull(columnValidation) || StringUtils.isBlank(columnValidation.getColumn()) || Objects.isNull(columnValidation.getDataType())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid validation schema : entry " + i + " needs a column and a dataType");
+            }
+            validateRegex(columnValidation, i);
+        }
+
+        return columnValidations;
+    }
+
+    private void validateRegex(ColumnValidation columnValidation, int index) {
+
+        if (Objects.isNull(columnValidation.getValidationRegex())) {
+            return;
+        }
+
+        try {
+            Pattern.compile(columnValidation.getValidationRegex());
+        } catch (PatternSyntaxException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid validation schema : entry " + index + " has an invalid validationRegex : " + e.getDescription());
+        }
+    }
 
 }
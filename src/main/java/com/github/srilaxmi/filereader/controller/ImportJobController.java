@@ -0,0 +1,35 @@
+package com.github.srilaxmi.filereader.controller;
+
+import com.github.srilaxmi.filereader.dto.FileUploadStatus;
+import com.github.srilaxmi.filereader.service.ImportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/import-jobs")
+public class ImportJobController {
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    @GetMapping
+    public Flux<FileUploadStatus> getImportJobs() {
+
+        return importJobService.getAllJobStatuses();
+    }
+
+    @GetMapping("/{jobId}")
+    public Mono<FileUploadStatus> getImportJob(@PathVariable String jobId) {
+
+        return importJobService.getJobStatus(jobId);
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    public Mono<FileUploadStatus> cancelImportJob(@PathVariable String jobId) {
+
+        return importJobService.cancelJob(jobId);
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.github.srilaxmi.filereader.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Columns a reader puts in row documents and the field names they are stored under, see FileContentReader.setColumnProjection
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnProjection {
+
+    /**
+     * Headers of the columns to read, every column when empty
+     */
+    @Builder.Default
+    private List<String> columns = List.of();
+
+    /**
+     * Header to the field name its values are stored under, unlisted columns keep their header
+     */
+    @Builder.Default
+    private Map<String, String> renames = Map.of();
+
+    public Boolean isProjecting() {
+        return !columns.isEmpty() || !renames.isEmpty();
+    }
+
+    /**
+     * @return field name for every column index of headers, null for columns that are not read or have a blank header
+     * @throws IllegalArgumentException if a projected column is missing from headers
+     */
+    public String[] getFieldNames(List<String> headers) {
+
+        List<String> missingColumns = columns.stream()
+                .filter(column -> !headers.contains(column))
+                .collect(Collectors.toList());
+
+        if (!missingColumns.isEmpty()) {
+            throw new IllegalArgumentException("Columns not found : " + missingColumns);
+        }
+
+        String[] fieldNames = new String[headers.size()];
+
+        for (int i = 0; i < headers.size(); i++) {
+            String header = headers.get(i);
+            if (StringUtils.isNotBlank(header) && (columns.isEmpty() || columns.contains(header))) {
+                fieldNames[i] = Objects.requireNonNullElse(renames.get(header), header);
+            }
+        }
+
+        return fieldNames;
+    }
+
+}
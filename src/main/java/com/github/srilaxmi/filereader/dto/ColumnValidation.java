@@ -0,0 +1,31 @@
+package com.github.srilaxmi.filereader.dto;
+
+import com.github.srilaxmi.filereader.constants.DataType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Expected type of a column during ingestion, rows failing any column validation are written to the rejects collection
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnValidation {
+
+    private String column;
+    private DataType dataType;
+    private String validationRegex;
+
+    @Builder.Default
+    private Boolean strictCheck = Boolean.FALSE;
+
+    /**
+     * Blank values are accepted and left unconverted unless the column is required
+     */
+    @Builder.Default
+    private Boolean required = Boolean.FALSE;
+
+}
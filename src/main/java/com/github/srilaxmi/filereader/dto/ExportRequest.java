@@ -0,0 +1,19 @@
+package com.github.srilaxmi.filereader.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportRequest {
+
+    private List<String> fields;
+    private List<FilterRule> filterRules;
+
+}
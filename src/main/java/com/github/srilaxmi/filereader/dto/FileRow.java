@@ -4,10 +4,27 @@ import lombok.Builder;
 import lombok.Data;
 import org.bson.Document;
 
+import java.util.List;
+import java.util.Objects;
+
 @Builder
 @Data
 public class FileRow {
 
     private Document row;
 
+    /**
+     * Source position just past this row for readers that can seek, e.g. the csv byte offset
+     */
+    private Long sourceOffset;
+
+    /**
+     * Set by the validation stage, rejected rows stay in the stream so batches and checkpoints keep counting them
+     */
+    private List<ValidationError> validationErrors;
+
+    public Boolean isRejected() {
+        return Objects.nonNull(validationErrors) && !validationErrors.isEmpty();
+    }
+
 }
@@ -4,6 +4,9 @@ import com.github.srilaxmi.filereader.constants.UploadStatus;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.Instant;
+import java.util.Map;
+
 @Builder
 @Data
 public class FileUploadStatus {
@@ -11,4 +14,17 @@ public class FileUploadStatus {
     private String fileDestinationUrl;
     private String fileId;
     private UploadStatus uploadStatus;
+
+    private String jobId;
+    private String collection;
+    private Long rowsRead;
+    private Long rowsWritten;
+    private Long rowsRejected;
+    private Map<String, Long> rejectionsByColumn;
+    private Long possibleDuplicates;
+    private Long bytesConsumed;
+    private Long rowsPerSecond;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String errorMessage;
 }
@@ -0,0 +1,19 @@
+package com.github.srilaxmi.filereader.dto;
+
+import com.github.srilaxmi.filereader.constants.Operator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilterRule {
+
+    private String field;
+    private Operator operator;
+    private Object value;
+
+}
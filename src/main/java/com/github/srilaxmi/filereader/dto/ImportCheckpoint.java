@@ -0,0 +1,50 @@
+package com.github.srilaxmi.filereader.dto;
+
+import com.github.srilaxmi.filereader.constants.DataType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Last batch of a file import that is known to be committed to the target collection
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportCheckpoint {
+
+    @Id
+    private String id;
+    private String collection;
+    private String fileName;
+    private String sheetName;
+
+    /**
+     * Hex ObjectId generated when the import starts and kept across resumes, row _ids are derived from it
+     */
+    private String runId;
+    private Long fileSize;
+    private Long fileChecksum;
+    private Long rowsCommitted;
+    private Long sourceOffset;
+
+    /**
+     * Data types inferred by the first run, reused on resume so every row of the file is converted the same way
+     */
+    private Map<String, DataType> dataTypes;
+    private Instant updatedAt;
+
+    /**
+     * Set when the checkpoint was loaded from a previous run, rows after rowsCommitted may then already be written
+     */
+    @Transient
+    private Boolean resumed;
+
+}
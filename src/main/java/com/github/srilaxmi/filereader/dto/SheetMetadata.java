@@ -0,0 +1,25 @@
+package com.github.srilaxmi.filereader.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Counts run from the first row and column to the last used cell of the dimension the sheet declares,
+ * they are null when the file does not record one. Headers are only previewed for XLSX sheets.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SheetMetadata {
+
+    private String name;
+    private Integer rowCount;
+    private Integer columnCount;
+    private List<String> headers;
+
+}
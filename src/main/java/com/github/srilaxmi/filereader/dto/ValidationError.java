@@ -0,0 +1,20 @@
+package com.github.srilaxmi.filereader.dto;
+
+import com.github.srilaxmi.filereader.constants.DataType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidationError {
+
+    private String column;
+    private DataType dataType;
+    private Object value;
+    private String reason;
+
+}
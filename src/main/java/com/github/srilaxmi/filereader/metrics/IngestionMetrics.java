@@ -0,0 +1,167 @@
+package com.github.srilaxmi.filereader.metrics;
+
+import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.service.FileContentReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for file parsing and mongo writes, published through actuator's /metrics endpoint.
+ * Meters are tagged by reader type and operation only, so the number of series stays bounded.
+ */
+@Component
+public class IngestionMetrics {
+
+    public static final String READER_INITIALIZE = "filereader.reader.initialize";
+    public static final String READER_ROWS = "filereader.reader.rows";
+    public static final String READER_BYTES = "filereader.reader.bytes";
+    public static final String READER_FILE_ROWS = "filereader.reader.file.rows";
+    public static final String READER_FILE_BYTES = "filereader.reader.file.bytes";
+    public static final String MONGO_BATCH_WRITE = "filereader.mongo.batch.write";
+    public static final String MONGO_BATCH_DOCUMENTS = "filereader.mongo.batch.documents";
+    public static final String IMPORTS_IN_FLIGHT = "filereader.imports.in-flight";
+
+    private static final String READER_TAG = "reader";
+    private static final String OPERATION_TAG = "operation";
+    private static final String OUTCOME_TAG = "outcome";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Readers do their work when initialize is called, so the call itself is deferred into the timed mono
+     */
+    public <T> Mono<T> timeInitialize(FileContentReader fileContentReader, Supplier<Mono<T>> initialization) {
+
+        String readerType = getReaderType(fileContentReader);
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return Mono.defer(initialization)
+                    .doFinally(signalType -> sample.stop(Timer.builder(READER_INITIALIZE)
+                            .description("Time taken to open a file and read its headers")
+                            .tag(READER_TAG, readerType)
+                            .tag(OUTCOME_TAG, getOutcome(signalType))
+                            .register(meterRegistry)));
+        });
+    }
+
+    /**
+     * Counts rows as they are emitted, bytes and per file totals are recorded once the reader terminates
+     */
+    public Flux<FileRow> recordRows(FileContentReader fileContentReader, Flux<FileRow> rows) {
+
+        String readerType = getReaderType(fileContentReader);
+
+        return Flux.defer(() -> {
+
+            Counter rowCounter = Counter.builder(READER_ROWS)
+                    .description("Rows emitted by file readers")
+                    .tag(READER_TAG, readerType)
+                    .register(meterRegistry);
+            AtomicLong fileRows = new AtomicLong();
+
+            return rows
+                    .doOnNext(fileRow -> {
+                        rowCounter.increment();
+                        fileRows.incrementAndGet();
+                    })
+                    .doFinally(signalType -> {
+                        long bytesRead = fileContentReader.getBytesRead();
+
+                        Counter.builder(READER_BYTES)
+                                .description("Bytes consumed by file readers")
+                                .baseUnit("bytes")
+                                .tag(READER_TAG, readerType)
+                                .register(meterRegistry)
+                                .increment(bytesRead);
+
+                        DistributionSummary.builder(READER_FILE_ROWS)
+                                .description("Rows read per file")
+                                .tag(READER_TAG, readerType)
+                                .register(meterRegistry)
+                                .record(fileRows.get());
+
+                        DistributionSummary.builder(READER_FILE_BYTES)
+                                .description("Bytes read per file")
+                                .baseUnit("bytes")
+                                .tag(READER_TAG, readerType)
+                                .register(meterRegistry)
+                                .record(bytesRead);
+                    });
+        });
+    }
+
+    public <T> Flux<T> timeBatchWrite(String operation, Integer batchSize, Flux<T> batchWrite) {
+
+        return Flux.defer(() -> {
+            recordBatchSize(operation, batchSize);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return batchWrite.doFinally(signalType -> sample.stop(getBatchWriteTimer(operation, signalType)));
+        });
+    }
+
+    public <T> Mono<T> timeBatchWrite(String operation, Integer batchSize, Mono<T> batchWrite) {
+
+        return Mono.defer(() -> {
+            recordBatchSize(operation, batchSize);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return batchWrite.doFinally(signalType -> sample.stop(getBatchWriteTimer(operation, signalType)));
+        });
+    }
+
+    public void registerInFlightImports(Supplier<Number> inFlightImports) {
+
+        Gauge.builder(IMPORTS_IN_FLIGHT, inFlightImports)
+                .description("Imports that are currently running")
+                .register(meterRegistry);
+    }
+
+    private Timer getBatchWriteTimer(String operation, SignalType signalType) {
+
+        return Timer.builder(MONGO_BATCH_WRITE)
+                .description("Latency of a single batch write to mongo")
+                .tag(OPERATION_TAG, operation)
+                .tag(OUTCOME_TAG, getOutcome(signalType))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void recordBatchSize(String operation, Integer batchSize) {
+
+        DistributionSummary.builder(MONGO_BATCH_DOCUMENTS)
+                .description("Documents per batch write to mongo")
+                .tag(OPERATION_TAG, operation)
+                .register(meterRegistry)
+                .record(batchSize);
+    }
+
+    private static String getOutcome(SignalType signalType) {
+
+        switch (signalType) {
+            case ON_COMPLETE:
+                return "success";
+            case ON_ERROR:
+                return "error";
+            default:
+                return "cancelled";
+        }
+    }
+
+    private static String getReaderType(FileContentReader fileContentReader) {
+
+        return fileContentReader.getClass().getSimpleName();
+    }
+
+}
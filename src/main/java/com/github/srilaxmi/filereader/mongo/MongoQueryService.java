@@ -1,5 +1,7 @@
 package com.github.srilaxmi.filereader.mongo;
 
+import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.index.IndexInfo;
@@ -48,6 +50,12 @@ public interface MongoQueryService {
 
     <T> Flux<T> saveMany(Mono<List<T>> dataMono, String collection);
 
+    Mono<Integer> bulkInsertUnordered(List<Document> documents, String collection);
+
+    Mono<Integer> bulkInsertRaw(List<RawBsonDocument> documents, String collection, Boolean ordered);
+
+    Mono<Integer> bulkInsertIgnoringDuplicates(List<Document> documents, String collection);
+
     <T> Flux<T> updateMany(Query query, Mono<List<T>> dataMono, String collection);
 
     <T> Flux<T> overWriteCollection(List<T> data, String collection);
@@ -64,6 +72,8 @@ public interface MongoQueryService {
 
     <T> Flux<T> copyCollection(String sourceCollection, String targetCollection, Class<T> tClass);
 
+    Mono<Boolean> copyCollectionOnServer(String sourceCollection, String targetCollection, Boolean keepId, Boolean append);
+
     Mono<Boolean> hasSameSizedCollections(String sourceCollection, String targetCollection);
 
     Mono<Boolean> dropCollection(String collection);
@@ -90,9 +100,15 @@ public interface MongoQueryService {
 
     <T> Flux<T> getDuplicatesByAggregateWithIdColumn(String idField, Class<T> tClass, String collection);
 
+    Flux<Document> getDuplicateKeyCounts(List<String> keyFields, String collection);
+
     <T> Flux<T> applyAggregation(Aggregation aggregation, Class<T> tClass, String collection);
 
     Mono<Boolean> appendDataToCollection(String sourceCollection, String destinationCollection);
 
+    Mono<Long> copyCollectionInRanges(String sourceCollection, String targetCollection, Boolean keepId);
+
+    Flux<Query> getIdRangeQueries(String collection, Integer partitions);
+
     Mono<Long> findDistinctCountOfFieldByQuery(String field, Query query, String collection);
 }
\ No newline at end of file
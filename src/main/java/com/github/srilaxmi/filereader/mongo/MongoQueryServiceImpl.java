@@ -2,18 +2,26 @@ package com.github.srilaxmi.filereader.mongo;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.srilaxmi.filereader.metrics.IngestionMetrics;
 import com.github.srilaxmi.filereader.util.DataTypeConversionUtil;
 import com.github.srilaxmi.filereader.util.DataTypeUtil;
 import com.mongodb.ConnectionString;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoNamespace;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
 import com.mongodb.client.model.RenameCollectionOptions;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.reactivestreams.client.MongoCollection;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.ReactiveMongoOperations;
 import org.springframework.data.mongodb.core.aggregation.*;
 import org.springframework.data.mongodb.core.index.IndexInfo;
@@ -27,6 +35,7 @@ import reactor.core.publisher.Mono;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static com.github.srilaxmi.filereader.constants.GlobalConstants.BATCH_SIZE;
 import static com.github.srilaxmi.filereader.constants.GlobalConstants._ID;
@@ -43,7 +52,15 @@ public class MongoQueryServiceImpl implements MongoQueryService {
             .maxTime(Duration.ofSeconds(MAX_TIME))
             .allowDiskUse(true)
             .build();
+    private final static AggregationOptions outputSkippedAggregationOptions = AggregationOptions
+            .builder()
+            .allowDiskUse(true)
+            .skipOutput()
+            .build();
     public static final String DUP_KEY_WITH_BRACES_REGEX = "dup key: \\{([^}]*)\\}";
+    private static final String DUPLICATE_COUNT_FIELD = "count";
+    private static final Integer ID_SAMPLES_PER_PARTITION = 10;
+    private static final Integer DUPLICATE_KEY_ERROR_CODE = 11000;
 
     @Value("${spring.data.mongodb.uri}")
     private String MONGO_DB_URI;
@@ -51,6 +68,12 @@ public class MongoQueryServiceImpl implements MongoQueryService {
     @Autowired
     private ReactiveMongoOperations reactiveMongoOperations;
 
+    @Autowired
+    private IngestionMetrics ingestionMetrics;
+
+    @Value("${filereader.copy.parallelism:4}")
+    private Integer copyParallelism;
+
     @Override
     public <T> Flux<T> getAll(Class<T> tClass, String collection) {
         return reactiveMongoOperations.findAll(tClass, collection);
@@ -145,6 +168,37 @@ public class MongoQueryServiceImpl implements MongoQueryService {
         return applyAggregation(aggregation, tClass, sourceCollection);
     }
 
+    /**
+     * Copies on the server with $out, or $merge when appending, so documents never travel through the application.
+     * $out replaces the target atomically, $merge fails on an _id already present in the target.
+     * Without keepId the _id is unset and the target generates new ones.
+     * The aggregation runs without a time limit as it is bound by the size of the collection.
+     */
+    @Override
+    public Mono<Boolean> copyCollectionOnServer(String sourceCollection, String targetCollection, Boolean keepId, Boolean append) {
+
+        List<AggregationOperation> aggregationOperations = new ArrayList<>();
+
+        if (!keepId) {
+            aggregationOperations.add(UnsetOperation.unset(_ID));
+        }
+
+        aggregationOperations.add(append ?
+                Aggregation.merge()
+                        .intoCollection(targetCollection)
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.failOnMatch())
+                        .whenNotMatched(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                        .build() :
+                Aggregation.out(targetCollection));
+
+        Aggregation aggregation = Aggregation.newAggregation(aggregationOperations)
+                .withOptions(outputSkippedAggregationOptions);
+
+        log.info("{} :: Copying on server to {} :: {}", sourceCollection, targetCollection, aggregation);
+        return reactiveMongoOperations.aggregate(aggregation, sourceCollection, Document.class)
+                .then(Mono.just(Boolean.TRUE));
+    }
+
     @Override
     public Mono<Long> getCount(String collection) {
         return getCountByQuery(new Query(), collection);
@@ -315,7 +369,75 @@ public class MongoQueryServiceImpl implements MongoQueryService {
 
     @Override
     public <T> Flux<T> saveMany(Mono<List<T>> dataMono, String collection) {
-        return reactiveMongoOperations.insertAll(dataMono, collection);
+        return dataMono.flatMapMany(data -> ingestionMetrics.timeBatchWrite("saveMany", data.size(),
+                reactiveMongoOperations.insertAll(Mono.just(data), collection)));
+    }
+
+    @Override
+    public Mono<Integer> bulkInsertUnordered(List<Document> documents, String collection) {
+
+        List<WriteModel<Document>> insertModels = documents
+                .stream()
+                .map(InsertOneModel::new)
+                .collect(Collectors.toList());
+
+        Mono<Integer> bulkWrite = reactiveMongoOperations.getCollection(collection)
+                .flatMap(mongoCollection -> Mono.from(mongoCollection.bulkWrite(insertModels, new BulkWriteOptions().ordered(false))))
+                .map(BulkWriteResult::getInsertedCount);
+
+        return ingestionMetrics.timeBatchWrite("bulkInsertUnordered", documents.size(), bulkWrite);
+    }
+
+    /**
+     * Inserts already encoded documents on the driver collection, bypassing the mapping layer,
+     * documents without an _id get one from the server
+     */
+    @Override
+    public Mono<Integer> bulkInsertRaw(List<RawBsonDocument> documents, String collection, Boolean ordered) {
+
+        List<WriteModel<RawBsonDocument>> insertModels = documents
+                .stream()
+                .map(InsertOneModel::new)
+                .collect(Collectors.toList());
+
+        Mono<Integer> bulkWrite = reactiveMongoOperations.getCollection(collection)
+                .map(mongoCollection -> mongoCollection.withDocumentClass(RawBsonDocument.class))
+                .flatMap(mongoCollection -> Mono.from(mongoCollection.bulkWrite(insertModels, new BulkWriteOptions().ordered(ordered))))
+                .map(BulkWriteResult::getInsertedCount);
+
+        return ingestionMetrics.timeBatchWrite("bulkInsertRaw", documents.size(), bulkWrite);
+    }
+
+    /**
+     * Unordered insert that skips documents whose _id is already in the collection
+     *
+     * @return count of documents inserted
+     */
+    @Override
+    public Mono<Integer> bulkInsertIgnoringDuplicates(List<Document> documents, String collection) {
+
+        List<WriteModel<Document>> insertModels = documents
+                .stream()
+                .map(InsertOneModel::new)
+                .collect(Collectors.toList());
+
+        Mono<Integer> bulkWrite = reactiveMongoOperations.getCollection(collection)
+                .flatMap(mongoCollection -> Mono.from(mongoCollection.bulkWrite(insertModels, new BulkWriteOptions().ordered(false))))
+                .map(BulkWriteResult::getInsertedCount)
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    boolean onlyDuplicates = e.getWriteErrors()
+                            .stream()
+                            .allMatch(writeError -> writeError.getCode() == DUPLICATE_KEY_ERROR_CODE);
+
+                    if (!onlyDuplicates || Objects.nonNull(e.getWriteConcernError())) {
+                        return Mono.error(e);
+                    }
+
+                    log.info("{} :: Skipped {} documents that were already written", collection, e.getWriteErrors().size());
+                    return Mono.just(e.getWriteResult().getInsertedCount());
+                });
+
+        return ingestionMetrics.timeBatchWrite("bulkInsertIgnoringDuplicates", documents.size(), bulkWrite);
     }
 
     @Override
@@ -394,10 +516,28 @@ public class MongoQueryServiceImpl implements MongoQueryService {
         Aggregation aggregation = Aggregation.newAggregation(
                 Aggregation.group(idField).push(Aggregation.ROOT).as("documents"),
                 Aggregation.match(Criteria.where("$expr").is(new Document("$gt", Arrays.asList(new Document("$size", "$documents"), 1L))))
-        );
+        ).withOptions(aggregationOptions);
         return reactiveMongoOperations.aggregate(aggregation, collection, tClass);
     }
 
+    /**
+     * Groups on the key fields keeping only a count per key, so groups never hold the documents themselves
+     * and large key sets spill to disk instead of failing
+     *
+     * @return one document per duplicated key with the key in _id and its number of documents in count
+     */
+    @Override
+    public Flux<Document> getDuplicateKeyCounts(List<String> keyFields, String collection) {
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group(keyFields.toArray(new String[0])).count().as(DUPLICATE_COUNT_FIELD),
+                Aggregation.match(Criteria.where(DUPLICATE_COUNT_FIELD).gt(1))
+        ).withOptions(aggregationOptions);
+
+        log.info("{} :: Scanning for duplicate keys on {}", collection, keyFields);
+        return reactiveMongoOperations.aggregate(aggregation, collection, Document.class);
+    }
+
     @Override
     public <T> Flux<T> applyAggregation(Aggregation aggregation, Class<T> tClass, String collection) {
 
@@ -409,16 +549,67 @@ public class MongoQueryServiceImpl implements MongoQueryService {
     @Override
     public Mono<Boolean> appendDataToCollection(String sourceCollection, String destinationCollection) {
 
-        AtomicInteger batchNo = new AtomicInteger(0);
-        return getAll(Document.class, sourceCollection)
-                .buffer(BATCH_SIZE)
-                .concatMap(data -> {
-                    batchNo.incrementAndGet();
-                    log.info("Batch {} :: Appending the data of {} collection to {} collection", batchNo.get(), sourceCollection, destinationCollection);
-                    return saveMany(Mono.just(data), destinationCollection);
-                })
-                .count()
-                .thenReturn(Boolean.TRUE);
+        return copyCollectionInRanges(sourceCollection, destinationCollection, Boolean.TRUE)
+                .map(insertedCount -> {
+                    log.info("{} :: Appended {} documents to {} collection", sourceCollection, insertedCount, destinationCollection);
+                    return Boolean.TRUE;
+                });
+    }
+
+    /**
+     * Reads the source in _id ranges on up to filereader.copy.parallelism cursors at once, every range inserting its
+     * own batches, collections smaller than a batch per cursor are read on a single cursor
+     *
+     * @return number of documents inserted
+     */
+    @Override
+    public Mono<Long> copyCollectionInRanges(String sourceCollection, String targetCollection, Boolean keepId) {
+
+        return getCount(sourceCollection)
+                .flatMapMany(count -> getIdRangeQueries(sourceCollection, (int) Math.min(copyParallelism, count / BATCH_SIZE)))
+                .flatMap(query -> {
+
+                    if (!keepId) {
+                        query.fields().exclude(_ID);
+                    }
+
+                    log.info("{} :: Copying range {} to {} collection", sourceCollection, query.getQueryObject().toJson(), targetCollection);
+
+                    AtomicInteger batchNo = new AtomicInteger(0);
+                    return getByQuery(query, Document.class, sourceCollection)
+                            .buffer(BATCH_SIZE)
+                            .concatMap(data -> saveMany(Mono.just(data), targetCollection)
+                                    .count()
+                                    .doOnNext(insertedCount -> log.debug("{} :: inserted documents count :: {} for batch number :: {} of range {}",
+                                            targetCollection, insertedCount, batchNo.incrementAndGet(), query.getQueryObject().toJson())));
+                }, Math.max(copyParallelism, 1))
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Splits a collection into contiguous _id ranges at split points taken from a sorted $sample of its ids.
+     * Range queries only match ids of the bound's type, so the first range is everything not above the first split
+     * point, which also covers ids of any other type, and collections whose sampled ids differ in type are not split.
+     *
+     * @return queries covering every document exactly once, a single empty query when not split
+     */
+    @Override
+    public Flux<Query> getIdRangeQueries(String collection, Integer partitions) {
+
+        if (partitions <= 1) {
+            return Flux.just(new Query());
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.sample((long) partitions * ID_SAMPLES_PER_PARTITION),
+                Aggregation.project(_ID),
+                Aggregation.sort(Sort.Direction.ASC, _ID)
+        ).withOptions(aggregationOptions);
+
+        return reactiveMongoOperations.aggregate(aggregation, collection, Document.class)
+                .map(document -> document.get(_ID))
+                .collectList()
+                .flatMapMany(sampledIds -> Flux.fromIterable(buildIdRangeQueries(sampledIds, partitions)));
     }
 
     @Override
@@ -426,6 +617,40 @@ public class MongoQueryServiceImpl implements MongoQueryService {
         return reactiveMongoOperations.findDistinct(query, field, collection, Object.class).count();
     }
 
+    private List<Query> buildIdRangeQueries(List<Object> sortedIds, Integer partitions) {
+
+        Set<Class<?>> idTypes = sortedIds.stream()
+                .map(id -> id instanceof Number ? Number.class : Objects.isNull(id) ? Void.class : id.getClass())
+                .collect(Collectors.toSet());
+
+        if (idTypes.size() != 1) {
+            return List.of(new Query());
+        }
+
+        List<Object> splitPoints = new ArrayList<>();
+
+        for (int i = 1; i < partitions; i++) {
+            Object splitPoint = sortedIds.get(i * sortedIds.size() / partitions);
+            if (splitPoints.isEmpty() || !Objects.equals(splitPoints.get(splitPoints.size() - 1), splitPoint)) {
+                splitPoints.add(splitPoint);
+            }
+        }
+
+        if (splitPoints.isEmpty()) {
+            return List.of(new Query());
+        }
+
+        List<Query> queries = new ArrayList<>();
+        queries.add(new Query(Criteria.where(_ID).not().gte(splitPoints.get(0))));
+
+        for (int i = 1; i < splitPoints.size(); i++) {
+            queries.add(new Query(Criteria.where(_ID).gte(splitPoints.get(i - 1)).lt(splitPoints.get(i))));
+        }
+
+        queries.add(new Query(Criteria.where(_ID).gte(splitPoints.get(splitPoints.size() - 1))));
+        return queries;
+    }
+
     private Mono<MongoCollection<Document>> getCollection(String collection) {
 
         return collectionExists(collection)
@@ -1,9 +1,10 @@
 package com.github.srilaxmi.filereader.service;
 
+import com.github.srilaxmi.filereader.dto.ColumnProjection;
 import com.github.srilaxmi.filereader.dto.FileRow;
 import com.github.srilaxmi.filereader.util.FileParseUtil;
-import io.micrometer.core.instrument.util.StringUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.DataFormatter;
@@ -22,6 +23,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -33,55 +35,70 @@ import static com.github.srilaxmi.filereader.util.FileParseUtil.replaceNewlinesA
 @Slf4j
 public class ApacheFileReader implements FileContentReader {
 
+    private XSSFWorkbook sharedWorkbook;
+    private final DataFormatter formatter = new DataFormatter();
+
     private XSSFWorkbook workbook;
     private Iterator<Row> rowIterator;
     private List<String> headers;
+    private Long bytesRead = 0L;
 
-    public static Document generateDocumentForXlsxRow(
-            XSSFRow rowContents, List<String> columns
-    ) {
+    // headers by column index, null for blank headers whose cells are not formatted
+    private String[] contentColumns;
+    private String[] cellValues;
+    private boolean projecting;
 
-        Document rowData = new Document();
-        DataFormatter formatter = new DataFormatter();
-
-        for (int j = 0; j < columns.size(); j++) {
-            try {
-                Cell cell = rowContents.getCell(j);
-                String column = columns.get(j);
-
-                if (StringUtils.isNotBlank(column) && cell != null) {
-                    String cellValue = formatter.formatCellValue(cell);
-                    rowData.put(column, cellValue.strip());
-                } else {
-                    rowData.put(column, "");
-                }
-            } catch (NullPointerException e) {
-                rowData.put(columns.get(j), "");
-            }
-        }
+    public ApacheFileReader() {
+        this(null);
+    }
 
-        return rowData;
+    /**
+     * @param sharedWorkbook: already loaded workbook to read a sheet from, it is left open once the sheet is read
+     */
+    public ApacheFileReader(XSSFWorkbook sharedWorkbook) {
+        this.sharedWorkbook = sharedWorkbook;
     }
 
-    @Override
-    public Mono<Void> initialize(String filePath, String sheetName) {
+    /**
+     * Loads the workbook once so that its sheets can be read concurrently through separate readers
+     */
+    public static SharedWorkbook openWorkbook(String filePath) throws IOException {
+
+        XSSFWorkbook workbook;
 
         try (FileInputStream fis = new FileInputStream(new File(filePath))) {
+            workbook = new XSSFWorkbook(fis);
+        }
 
-            log.info("Before generating workbook :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+        List<String> sheetNames = new ArrayList<>();
 
-            this.workbook = new XSSFWorkbook(fis);
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+            sheetNames.add(workbook.getSheetName(i));
+        }
 
-            log.info("After generating workbook :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+        return new SharedWorkbook(sheetNames, () -> new ApacheFileReader(workbook), () -> closeWorkbook(workbook));
+    }
 
-            XSSFSheet worksheet = Objects.nonNull(sheetName) ? workbook.getSheet(sheetName) : workbook.getSheetAt(FileParseUtil.BASE_INDEX);
+    @Override
+    public Mono<Void> initialize(String filePath, String sheetName) {
 
-            log.info("After generating worksheet :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+        try {
+
+            if (Objects.nonNull(sharedWorkbook)) {
+                this.workbook = sharedWorkbook;
+            } else {
+                try (FileInputStream fis = new FileInputStream(new File(filePath))) {
+                    this.workbook = new XSSFWorkbook(fis);
+                }
+                this.bytesRead = new File(filePath).length();
+            }
+
+            XSSFSheet worksheet = Objects.nonNull(sheetName) ? workbook.getSheet(sheetName) : workbook.getSheetAt(FileParseUtil.BASE_INDEX);
 
             this.rowIterator = worksheet.iterator();
             this.headers = extractHeaders();
-
-            log.info("After generating headers :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+            this.contentColumns = headers.stream().map(header -> StringUtils.isNotBlank(header) ? header : null).toArray(String[]::new);
+            this.cellValues = new String[headers.size()];
 
             return Mono.empty();
 
@@ -103,7 +120,12 @@ public class ApacheFileReader implements FileContentReader {
     public Flux<FileRow> getAllRows() {
 
         return Flux.fromIterable(() -> rowIterator)
-                .flatMap(row -> getFileRow((XSSFRow) row))
+                .<FileRow>handle((row, sink) -> {
+                    FileRow fileRow = getFileRow((XSSFRow) row);
+                    if (Objects.nonNull(fileRow)) {
+                        sink.next(fileRow);
+                    }
+                })
                 .doFinally(signalType -> {
                     if (signalType == SignalType.ON_ERROR) {
                         log.error("doOnFinally: Stream terminated with an error");
@@ -117,7 +139,45 @@ public class ApacheFileReader implements FileContentReader {
     @Override
     public Mono<FileRow> getNextRow(Integer rowNumber) {
 
-        return getFileRow((XSSFRow) rowIterator.next());
+        if (Objects.nonNull(rowNumber)) {
+            return getRows(rowNumber.longValue(), 1L).next();
+        }
+
+        return Mono.justOrEmpty(getFileRow((XSSFRow) rowIterator.next()));
+    }
+
+    /**
+     * Rows are already in memory, skipped rows are only checked for emptiness and never converted to documents
+     */
+    @Override
+    public Mono<Void> skipRows(Long rowCount, Long sourceOffset) {
+
+        long skipped = 0;
+
+        while (skipped < rowCount && rowIterator.hasNext()) {
+            XSSFRow row = (XSSFRow) rowIterator.next();
+            if (!isRowEmpty(row)) {
+                skipped++;
+            }
+        }
+
+        return Mono.empty();
+    }
+
+    /**
+     * Columns outside the projection get a null content column, so their cells are never formatted
+     */
+    @Override
+    public void setColumnProjection(ColumnProjection columnProjection) {
+
+        this.contentColumns = columnProjection.getFieldNames(headers);
+        this.projecting = true;
+    }
+
+    @Override
+    public Long getBytesRead() {
+
+        return bytesRead;
     }
 
     private List<String> extractHeaders() {
@@ -137,15 +197,57 @@ public class ApacheFileReader implements FileContentReader {
         return contentColumns;
     }
 
-    private Mono<FileRow> getFileRow(XSSFRow row) {
+    /**
+     * @return the row as a document, or null when all of its cells are blank
+     */
+    private FileRow getFileRow(XSSFRow row) {
 
-        if (!isRowEmpty(row)) {
-            Document document = generateDocumentForXlsxRow(row, headers);
-            return Mono.just(FileRow.builder().row(document).build());
-        } else {
-            return Mono.empty();
+        Document document = decodeRow(row);
+        return Objects.nonNull(document) ? FileRow.builder().row(document).build() : null;
+    }
+
+    /**
+     * Decides emptiness and formats cell values in a single walk over the row's cells. Values are collected by
+     * column index into a reused array and only turned into a document once the row is known to have content.
+     */
+    private Document decodeRow(XSSFRow row) {
+
+        if (row == null) {
+            return null;
+        }
+
+        boolean empty = true;
+        Arrays.fill(cellValues, null);
+
+        for (Cell cell : row) {
+
+            if (cell.getCellType() == CellType.BLANK) {
+                continue;
+            }
+
+            empty = false;
+            int columnIndex = cell.getColumnIndex();
+
+            if (columnIndex < contentColumns.length && Objects.nonNull(contentColumns[columnIndex])) {
+                cellValues[columnIndex] = formatter.formatCellValue(cell).strip();
+            }
+        }
+
+        if (empty) {
+            return null;
         }
 
+        Document rowData = new Document();
+
+        for (int j = 0; j < cellValues.length; j++) {
+            if (!projecting) {
+                rowData.put(headers.get(j), Objects.nonNull(cellValues[j]) ? cellValues[j] : "");
+            } else if (Objects.nonNull(contentColumns[j])) {
+                rowData.put(contentColumns[j], Objects.nonNull(cellValues[j]) ? cellValues[j] : "");
+            }
+        }
+
+        return rowData;
     }
 
     private Boolean isRowEmpty(XSSFRow row) {
@@ -154,9 +256,8 @@ public class ApacheFileReader implements FileContentReader {
             return true;
         }
 
-        for (int i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
+        for (Cell cell : row) {
+            if (cell.getCellType() != CellType.BLANK) {
                 return false;
             }
         }
@@ -164,20 +265,25 @@ public class ApacheFileReader implements FileContentReader {
         return true;
     }
 
+    /**
+     * Drops the references to the workbook and its rows, so a finished reader held by its import job does not keep them alive
+     */
     private void close() {
 
-        if (Objects.nonNull(this.workbook)) {
-            try {
-
-                log.info("Before Disposing workbook :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-
-                this.workbook.close();
+        if (Objects.nonNull(this.workbook) && Objects.isNull(sharedWorkbook)) {
+            closeWorkbook(this.workbook);
+        }
+        this.workbook = null;
+        this.sharedWorkbook = null;
+        this.rowIterator = null;
+    }
 
-                log.info("After disposing workbook :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+    private static void closeWorkbook(XSSFWorkbook workbook) {
 
-            } catch (IOException e) {
-                log.warn("Error while Disposing workbook :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-            }
+        try {
+            workbook.close();
+        } catch (IOException e) {
+            log.warn("Error while Disposing workbook", e);
         }
     }
 
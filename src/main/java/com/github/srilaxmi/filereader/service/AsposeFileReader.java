@@ -1,6 +1,7 @@
 package com.github.srilaxmi.filereader.service;
 
 import com.aspose.cells.*;
+import com.github.srilaxmi.filereader.dto.ColumnProjection;
 import com.github.srilaxmi.filereader.dto.FileRow;
 import com.github.srilaxmi.filereader.util.FileDataReaderUtil;
 import com.github.srilaxmi.filereader.util.FileParseUtil;
@@ -13,6 +14,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SignalType;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -24,35 +27,66 @@ import static com.github.srilaxmi.filereader.util.FileParseUtil.getColumnsForXls
 @Slf4j
 public class AsposeFileReader implements FileContentReader {
 
+    private Workbook sharedWorkbook;
+
     private Workbook workbook;
 
     private  Iterator<Row> rowIterator;
 
     private List<String> headers;
 
-    @Override
-    public Mono<Void> initialize(String filePath, String sheetName) {
+    // field name by column index once a projection is set, null for columns left out of the documents
+    private String[] fieldNames;
 
-        try {
+    private Long bytesRead = 0L;
 
-            log.info("Before generating workbook :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+    public AsposeFileReader() {
+        this(null);
+    }
 
-            LoadOptions loadOptions = new LoadOptions();
-            loadOptions.setMemorySetting(MemorySetting.MEMORY_PREFERENCE);
+    /**
+     * @param sharedWorkbook: already loaded workbook to read a sheet from, it is left open once the sheet is read
+     */
+    public AsposeFileReader(Workbook sharedWorkbook) {
+        this.sharedWorkbook = sharedWorkbook;
+    }
 
-            this.workbook = new Workbook(filePath, loadOptions);
+    /**
+     * Loads the workbook once so that its sheets can be read concurrently through separate readers.
+     * Aspose only supports reading cells from several threads once multi thread reading is set on them,
+     * which is done here before any reader is handed out.
+     */
+    public static SharedWorkbook openWorkbook(String filePath) throws Exception {
 
-            log.info("After generating workbook :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+        Workbook workbook = loadWorkbook(filePath);
+        WorksheetCollection worksheets = workbook.getWorksheets();
+        List<String> sheetNames = new ArrayList<>();
 
-             Worksheet worksheet = Objects.requireNonNullElse(workbook.getWorksheets().get(sheetName), workbook.getWorksheets().get(FileParseUtil.BASE_INDEX));
+        for (int i = 0; i < worksheets.getCount(); i++) {
+            worksheets.get(i).getCells().setMultiThreadReading(true);
+            sheetNames.add(worksheets.get(i).getName());
+        }
+
+        return new SharedWorkbook(sheetNames, () -> new AsposeFileReader(workbook), workbook::dispose);
+    }
+
+    @Override
+    public Mono<Void> initialize(String filePath, String sheetName) {
 
-            log.info("After generating worksheet :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+        try {
+
+            if (Objects.nonNull(sharedWorkbook)) {
+                this.workbook = sharedWorkbook;
+            } else {
+                this.workbook = loadWorkbook(filePath);
+                this.bytesRead = new File(filePath).length();
+            }
+
+             Worksheet worksheet = Objects.requireNonNullElse(workbook.getWorksheets().get(sheetName), workbook.getWorksheets().get(FileParseUtil.BASE_INDEX));
 
             this.rowIterator = worksheet.getCells().getRows().iterator();
             this.headers = extractHeaders();
 
-            log.info("After generating headers and iterator :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-
             return Mono.empty();
 
         }  catch (Exception e) {
@@ -86,9 +120,51 @@ public class AsposeFileReader implements FileContentReader {
     @Override
     public Mono<FileRow> getNextRow(Integer rowNumber) {
 
+        if (Objects.nonNull(rowNumber)) {
+            return getRows(rowNumber.longValue(), 1L).next();
+        }
+
         return getFileRow(rowIterator.next());
     }
 
+    /**
+     * Rows are already in memory, skipped rows are only checked for emptiness and never converted to documents
+     */
+    @Override
+    public Mono<Void> skipRows(Long rowCount, Long sourceOffset) {
+
+        long skipped = 0;
+
+        while (skipped < rowCount && rowIterator.hasNext()) {
+            Row row = rowIterator.next();
+            if (!isRowEmpty(row)) {
+                skipped++;
+            }
+        }
+
+        return Mono.empty();
+    }
+
+    @Override
+    public void setColumnProjection(ColumnProjection columnProjection) {
+
+        this.fieldNames = columnProjection.getFieldNames(headers);
+    }
+
+    @Override
+    public Long getBytesRead() {
+
+        return bytesRead;
+    }
+
+    private static Workbook loadWorkbook(String filePath) throws Exception {
+
+        LoadOptions loadOptions = new LoadOptions();
+        loadOptions.setMemorySetting(MemorySetting.MEMORY_PREFERENCE);
+
+        return new Workbook(filePath, loadOptions);
+    }
+
     private List<String> extractHeaders() {
 
         Row columnContents = rowIterator.next();
@@ -98,7 +174,9 @@ public class AsposeFileReader implements FileContentReader {
     private Mono<FileRow> getFileRow(Row row) {
 
         if (!isRowEmpty(row)) {
-            Document document = FileDataReaderUtil.generateDocumentForXlsbOrXlsOrTsvRow(row, headers);
+            Document document = Objects.isNull(fieldNames) ?
+                    FileDataReaderUtil.generateDocumentForXlsbOrXlsOrTsvRow(row, headers) :
+                    generateProjectedDocument(row);
             return Mono.just(FileRow.builder().row(document).build());
         } else {
             return Mono.empty();
@@ -106,6 +184,20 @@ public class AsposeFileReader implements FileContentReader {
 
     }
 
+    private Document generateProjectedDocument(Row row) {
+
+        Document rowData = new Document();
+
+        for (int j = 0; j < fieldNames.length; j++) {
+            if (Objects.nonNull(fieldNames[j])) {
+                Cell cell = row.getCellOrNull(j);
+                rowData.put(fieldNames[j], Objects.isNull(cell) ? "" : cell.getStringValue().strip());
+            }
+        }
+
+        return rowData;
+    }
+
     private Boolean isRowEmpty(Row row) {
 
         for (int colIndex = 0; colIndex < headers.size(); colIndex++) {
@@ -119,17 +211,17 @@ public class AsposeFileReader implements FileContentReader {
         return true;
     }
 
+    /**
+     * Drops the references to the workbook and its rows, so a finished reader held by its import job does not keep them alive
+     */
     private void close() {
 
-        if (Objects.nonNull(this.workbook)) {
-
-            log.info("Before Disposing workbook :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-
+        if (Objects.nonNull(this.workbook) && Objects.isNull(sharedWorkbook)) {
             this.workbook.dispose();
-
-            log.info("After disposing workbook :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-
         }
+        this.workbook = null;
+        this.sharedWorkbook = null;
+        this.rowIterator = null;
     }
 
 }
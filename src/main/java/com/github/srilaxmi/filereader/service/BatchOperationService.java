@@ -1,21 +1,43 @@
 package com.github.srilaxmi.filereader.service;
 
+import com.github.srilaxmi.filereader.constants.DuplicateDetection;
+import com.github.srilaxmi.filereader.constants.IngestionMode;
+import com.github.srilaxmi.filereader.constants.SheetTarget;
+import com.github.srilaxmi.filereader.dto.ImportCheckpoint;
+import com.github.srilaxmi.filereader.dto.Pair;
 import com.github.srilaxmi.filereader.mongo.MongoQueryService;
 import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.util.DuplicateKeyDetector;
+import com.github.srilaxmi.filereader.util.MongoUtil;
+import com.github.srilaxmi.filereader.util.RawBsonRowEncoder;
+import com.github.srilaxmi.filereader.util.RowValidationUtil;
+import com.github.srilaxmi.filereader.util.SchemaInferenceUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static com.github.srilaxmi.filereader.constants.GlobalConstants.BATCH_SIZE;
-import static com.github.srilaxmi.filereader.constants.GlobalConstants._ID;
+import static com.github.srilaxmi.filereader.constants.GlobalConstants.MAX_BULK_WRITE_DOCUMENTS;
+import static com.github.srilaxmi.filereader.constants.GlobalConstants.REJECTS_COLLECTION_SUFFIX;
+import static com.github.srilaxmi.filereader.constants.GlobalConstants.SHEET_FIELD;
 
 @Component
 @Slf4j
@@ -27,53 +49,427 @@ public class BatchOperationService {
     @Autowired
     private MongoQueryService mongoQueryService;
 
+    @Autowired
+    private ImportCheckpointService importCheckpointService;
+
+    @Value("${filereader.ingestion.mode:ORDERED}")
+    private IngestionMode ingestionMode;
+
+    @Value("${filereader.ingestion.max-in-flight-batches:4}")
+    private Integer maxInFlightBatches;
+
+    @Value("${filereader.ingestion.max-batch-bytes:8388608}")
+    private Long maxBatchBytes;
+
+    @Value("${filereader.ingestion.raw-bson:false}")
+    private Boolean rawBsonWrites;
+
+    @Value("${filereader.schema-inference.enabled:false}")
+    private Boolean schemaInferenceEnabled;
+
+    @Value("${filereader.schema-inference.sample-size:1000}")
+    private Integer schemaInferenceSampleSize;
+
+    @Value("${filereader.checkpoint.enabled:true}")
+    private Boolean checkpointEnabled;
+
+    @Value("${filereader.duplicates.detection:HASH_SET}")
+    private DuplicateDetection duplicateDetection;
+
+    @Value("${filereader.duplicates.expected-keys:10000000}")
+    private Long duplicateExpectedKeys;
+
+    @Value("${filereader.duplicates.false-positive-rate:0.001}")
+    private Double duplicateFalsePositiveRate;
+
+    @Value("${filereader.copy.server-side:true}")
+    private Boolean serverSideCopy;
+
     public Mono<Boolean> saveFileDataToCollection(
             String path, String sheetName, String collection
     ) throws IOException {
 
-        return fileExtractionService.extractFile(path, sheetName)
-                .concatMap(FileContentReader::getAllRows)
-                .map(FileRow::getRow)
-                .buffer(BATCH_SIZE)
-                .concatMap(data -> mongoQueryService.saveMany(Mono.just(data), collection))
-                .count()
+        return saveFileDataToCollection(path, sheetName, collection, new ImportJob(new File(path).getName(), collection), Boolean.TRUE);
+    }
+
+    /**
+     * Single file imports are checkpointed after every committed batch when enabled, so a failed or cancelled
+     * import of the same file into the same collection continues after the last committed row
+     *
+     * @param resume: continue after the checkpoint of an earlier import of the file, else start over with a new checkpoint
+     */
+    public Mono<Boolean> saveFileDataToCollection(
+            String path, String sheetName, String collection, ImportJob importJob, Boolean resume
+    ) throws IOException {
+
+        if (!checkpointEnabled || StringUtils.equalsIgnoreCase(FilenameUtils.getExtension(path), "ZIP")) {
+            return saveFileData(path, sheetName, collection, importJob, null);
+        }
+
+        return importCheckpointService.getOrCreateCheckpoint(path, sheetName, collection, resume)
+                .flatMap(checkpoint -> {
+                    try {
+                        return saveFileData(path, sheetName, collection, importJob, checkpoint)
+                                .flatMap(uploaded -> importCheckpointService.deleteCheckpoint(checkpoint).thenReturn(uploaded));
+                    } catch (IOException e) {
+                        return Mono.error(e);
+                    }
+                });
+    }
+
+    private Mono<Boolean> saveFileData(
+            String path, String sheetName, String collection, ImportJob importJob, ImportCheckpoint checkpoint
+    ) throws IOException {
+
+        if (Objects.nonNull(checkpoint)) {
+            importJob.getRowsRead().set(checkpoint.getRowsCommitted());
+            importJob.getRowsWritten().set(checkpoint.getRowsCommitted());
+        }
+
+        Flux<FileRow> fileRows = fileExtractionService.extractFileRows(path, sheetName, getReaderListener(importJob), checkpoint)
+                .doOnNext(fileRow -> importJob.getRowsRead().incrementAndGet());
+
+        fileRows = RowValidationUtil.validateRows(fileRows, importJob.getColumnValidations(), importJob::recordRejection);
+        fileRows = rejectDuplicateKeys(fileRows, importJob);
+
+        if (schemaInferenceEnabled) {
+            fileRows = applySchema(fileRows, checkpoint);
+        }
+
+        Flux<Pair<List<FileRow>, Long>> committedBatches;
+
+        if (Objects.isNull(checkpoint)) {
+            committedBatches = saveFileRows(fileRows, collection, Boolean.FALSE);
+        } else {
+            fileRows = importCheckpointService.assignRowIds(fileRows, checkpoint);
+            committedBatches = saveFileRows(fileRows, collection, checkpoint.getResumed())
+                    .concatMap(committedBatch -> importCheckpointService
+                            .commitBatch(checkpoint, committedBatch.getFirst())
+                            .thenReturn(committedBatch));
+        }
+
+        Mono<Long> uploadedCount = committedBatches
+                .map(Pair::getSecond)
+                .doOnNext(writtenCount -> importJob.getRowsWritten().addAndGet(writtenCount))
+                .reduce(0L, Long::sum);
+
+        return uploadedCount
                 .map(dataUploaded -> {
                     log.info("{} :: Count of entries uploaded to collection :: {}", collection, dataUploaded);
                     return Boolean.TRUE;
                 });
     }
 
+    /**
+     * Checkpointed imports keep the inferred data types in the checkpoint, a resumed import converts its rows with
+     * the types inferred from the start of the file instead of inferring them again from the rows after the checkpoint
+     */
+    private Flux<FileRow> applySchema(Flux<FileRow> fileRows, ImportCheckpoint checkpoint) {
+
+        if (Objects.isNull(checkpoint)) {
+            return SchemaInferenceUtil.applyInferredSchema(fileRows, schemaInferenceSampleSize);
+        }
+
+        if (Objects.nonNull(checkpoint.getDataTypes())) {
+            log.info("{} :: Reusing data types of the checkpoint :: {}", checkpoint.getCollection(), checkpoint.getDataTypes());
+            return SchemaInferenceUtil.applySchema(fileRows, checkpoint.getDataTypes());
+        }
+
+        return SchemaInferenceUtil.applyInferredSchema(fileRows, schemaInferenceSampleSize, checkpoint::setDataTypes);
+    }
+
+    /**
+     * Writes the rows of a CSV or TSV upload as they are parsed, so the upload, parsing and writes overlap.
+     * Streamed imports cannot be resumed and are not checkpointed.
+     */
+    public Mono<Boolean> saveStreamToCollection(
+            String fileName, Flux<DataBuffer> content, String collection, ImportJob importJob
+    ) {
+
+        Flux<FileRow> fileRows = fileExtractionService.extractStreamRows(fileName, content, getReaderListener(importJob))
+                .doOnNext(fileRow -> importJob.getRowsRead().incrementAndGet());
+
+        fileRows = RowValidationUtil.validateRows(fileRows, importJob.getColumnValidations(), importJob::recordRejection);
+        fileRows = rejectDuplicateKeys(fileRows, importJob);
+
+        if (schemaInferenceEnabled) {
+            fileRows = SchemaInferenceUtil.applyInferredSchema(fileRows, schemaInferenceSampleSize);
+        }
+
+        return saveFileRows(fileRows, collection, Boolean.FALSE)
+                .map(Pair::getSecond)
+                .doOnNext(writtenCount -> importJob.getRowsWritten().addAndGet(writtenCount))
+                .reduce(0L, Long::sum)
+                .map(dataUploaded -> {
+                    log.info("{} :: Count of entries uploaded from stream :: {} :: {}", collection, fileName, dataUploaded);
+                    return Boolean.TRUE;
+                });
+    }
+
+    /**
+     * Reads the selected sheets of a workbook concurrently after parsing it once. Each sheet is written to its own
+     * collection, or with SHEET_FIELD into a single collection where every row is tagged with its sheet name.
+     * Sheet imports are not checkpointed.
+     *
+     * @param sheetNames: sheets to import, all sheets when empty
+     */
+    public Mono<Boolean> saveWorkbookSheetsToCollections(
+            String path, List<String> sheetNames, String collection, SheetTarget sheetTarget, ImportJob importJob
+    ) {
+
+        return Mono.defer(() -> {
+
+            // sheets sharing a collection share a detector, so keys repeated across sheets are found too
+            DuplicateKeyDetector collectionDetector = SheetTarget.SHEET_FIELD.equals(sheetTarget) ?
+                    createDuplicateKeyDetector(importJob) :
+                    null;
+
+            return saveWorkbookSheetsToCollections(path, sheetNames, collection, sheetTarget, importJob, collectionDetector);
+        });
+    }
+
+    private Mono<Boolean> saveWorkbookSheetsToCollections(
+            String path, List<String> sheetNames, String collection, SheetTarget sheetTarget, ImportJob importJob,
+            DuplicateKeyDetector collectionDetector
+    ) {
+
+        return fileExtractionService.extractSheets(path, sheetNames, getReaderListener(importJob), (sheetName, sheetRows) -> {
+
+                    String targetCollection = SheetTarget.SHEET_FIELD.equals(sheetTarget) ?
+                            collection :
+                            MongoUtil.getSheetCollectionName(collection, sheetName);
+
+                    Flux<FileRow> fileRows = sheetRows.doOnNext(fileRow -> importJob.getRowsRead().incrementAndGet());
+                    fileRows = RowValidationUtil.validateRows(fileRows, importJob.getColumnValidations(), importJob::recordRejection);
+                    fileRows = Objects.isNull(collectionDetector) ?
+                            rejectDuplicateKeys(fileRows, importJob) :
+                            rejectDuplicateKeys(fileRows, importJob, collectionDetector);
+
+                    if (SheetTarget.SHEET_FIELD.equals(sheetTarget)) {
+                        fileRows = fileRows.doOnNext(fileRow -> fileRow.getRow().put(SHEET_FIELD, sheetName));
+                    }
+
+                    if (schemaInferenceEnabled) {
+                        fileRows = SchemaInferenceUtil.applyInferredSchema(fileRows, schemaInferenceSampleSize);
+                    }
+
+                    return saveFileRows(fileRows, targetCollection, Boolean.FALSE)
+                            .map(Pair::getSecond)
+                            .doOnNext(writtenCount -> importJob.getRowsWritten().addAndGet(writtenCount))
+                            .reduce(0L, Long::sum)
+                            .doOnNext(dataUploaded -> log.info("{} :: Count of entries uploaded from sheet :: {} :: {}", targetCollection, sheetName, dataUploaded));
+                })
+                .then(Mono.just(Boolean.TRUE));
+    }
+
+    /**
+     * Applies the job's column projection to every reader before its rows are read
+     */
+    private Consumer<FileContentReader> getReaderListener(ImportJob importJob) {
+
+        return fileContentReader -> {
+            if (importJob.getColumnProjection().isProjecting()) {
+                fileContentReader.setColumnProjection(importJob.getColumnProjection());
+            }
+            importJob.addReader(fileContentReader);
+        };
+    }
+
+    /**
+     * Every subscription gets its own detector, so duplicates are found within a file or sheet. A resumed import
+     * only compares the rows read after the checkpoint.
+     */
+    private Flux<FileRow> rejectDuplicateKeys(Flux<FileRow> fileRows, ImportJob importJob) {
+
+        return Flux.defer(() -> rejectDuplicateKeys(fileRows, importJob, createDuplicateKeyDetector(importJob)));
+    }
+
+    private Flux<FileRow> rejectDuplicateKeys(Flux<FileRow> fileRows, ImportJob importJob, DuplicateKeyDetector duplicateKeyDetector) {
+
+        if (Objects.isNull(duplicateKeyDetector)) {
+            return fileRows;
+        }
+
+        return RowValidationUtil.rejectDuplicateKeys(
+                fileRows, duplicateKeyDetector, importJob::recordRejection, importJob::recordPossibleDuplicate);
+    }
+
+    /**
+     * @return null when the job has no unique key
+     */
+    private DuplicateKeyDetector createDuplicateKeyDetector(ImportJob importJob) {
+
+        if (importJob.getUniqueKeyColumns().isEmpty()) {
+            return null;
+        }
+
+        return DuplicateKeyDetector.create(importJob.getUniqueKeyColumns(), duplicateDetection, duplicateExpectedKeys, duplicateFalsePositiveRate);
+    }
+
+    /**
+     * @param ignoreDuplicates: rows whose _id is already in the collection are skipped, for resumed imports whose
+     *                          rows after the checkpoint may have been written before the previous run stopped
+     */
+    private Flux<Pair<List<FileRow>, Long>> saveFileRows(Flux<FileRow> fileRows, String collection, Boolean ignoreDuplicates) {
+
+        return IngestionMode.UNORDERED_BULK.equals(ingestionMode) ?
+                saveInUnorderedBulk(fileRows, collection, ignoreDuplicates) :
+                saveInOrder(fileRows, collection, ignoreDuplicates);
+    }
+
+    /**
+     * @return every batch with its written count, in file order
+     */
+    private Flux<Pair<List<FileRow>, Long>> saveInOrder(Flux<FileRow> fileRows, String collection, Boolean ignoreDuplicates) {
+
+        return Flux.defer(() -> {
+            Function<List<Document>, Mono<Long>> batchWrite = createBatchWrite(collection, Boolean.TRUE, ignoreDuplicates);
+
+            return fileRows
+                    .buffer(BATCH_SIZE)
+                    .concatMap(batch -> saveBatch(batch, collection, batchWrite, ignoreDuplicates)
+                            .map(writtenCount -> new Pair<>(batch, writtenCount)));
+        });
+    }
+
+    /**
+     * Keeps up to maxInFlightBatches unordered bulk writes outstanding, so mongo round trips overlap.
+     * Results are still emitted in file order so checkpoints only ever cover a contiguous prefix of the file.
+     */
+    private Flux<Pair<List<FileRow>, Long>> saveInUnorderedBulk(Flux<FileRow> fileRows, String collection, Boolean ignoreDuplicates) {
+
+        return Flux.defer(() -> {
+            AtomicInteger batchNo = new AtomicInteger(0);
+            Function<List<Document>, Mono<Long>> batchWrite = createBatchWrite(collection, Boolean.FALSE, ignoreDuplicates);
+
+            return bufferByBsonSize(fileRows)
+                    .flatMapSequential(batch -> {
+                        log.info("{} :: Writing bulk batch {} with {} documents", collection, batchNo.incrementAndGet(), batch.size());
+                        return saveBatch(batch, collection, batchWrite, ignoreDuplicates)
+                                .map(writtenCount -> new Pair<>(batch, writtenCount));
+                    }, maxInFlightBatches);
+        });
+    }
+
+    /**
+     * With filereader.ingestion.raw-bson batches are encoded by a RawBsonRowEncoder shared by every batch of the stream,
+     * encoding happens when the write is created, which concatMap and flatMapSequential do one batch at a time.
+     * Writes ignoring duplicates are unordered within the batch, so rows after an already written one are still inserted.
+     */
+    private Function<List<Document>, Mono<Long>> createBatchWrite(String collection, Boolean ordered, Boolean ignoreDuplicates) {
+
+        if (ignoreDuplicates) {
+            return documents -> mongoQueryService.bulkInsertIgnoringDuplicates(documents, collection).map(Integer::longValue);
+        }
+
+        if (rawBsonWrites) {
+            RawBsonRowEncoder rowEncoder = new RawBsonRowEncoder();
+            return documents -> mongoQueryService.bulkInsertRaw(rowEncoder.encode(documents), collection, ordered)
+                    .map(Integer::longValue);
+        }
+
+        return ordered ?
+                documents -> mongoQueryService.saveMany(Mono.just(documents), collection).count() :
+                documents -> mongoQueryService.bulkInsertUnordered(documents, collection).map(Integer::longValue);
+    }
+
+    private Flux<List<FileRow>> bufferByBsonSize(Flux<FileRow> fileRows) {
+
+        return Flux.defer(() -> {
+            AtomicLong batchBytes = new AtomicLong();
+            AtomicInteger batchCount = new AtomicInteger();
+
+            return fileRows.bufferUntil(fileRow -> {
+                long bytes = batchBytes.addAndGet(MongoUtil.estimateBsonSize(fileRow.getRow()));
+                int count = batchCount.incrementAndGet();
+
+                if (bytes >= maxBatchBytes || count >= MAX_BULK_WRITE_DOCUMENTS) {
+                    batchBytes.set(0);
+                    batchCount.set(0);
+                    return true;
+                }
+                return false;
+            });
+        });
+    }
+
+    /**
+     * Writes the valid rows of a batch with batchWrite and its rejected rows to the rejects collection,
+     * the batch only completes once both are written so checkpoints never skip over a rejected row
+     *
+     * @return count of valid rows written
+     */
+    private Mono<Long> saveBatch(
+            List<FileRow> batch, String collection, Function<List<Document>, Mono<Long>> batchWrite, Boolean ignoreDuplicates
+    ) {
+
+        List<Document> documents = new ArrayList<>(batch.size());
+        List<Document> rejectedDocuments = new ArrayList<>();
+
+        for (FileRow fileRow : batch) {
+            if (fileRow.isRejected()) {
+                rejectedDocuments.add(RowValidationUtil.toRejectDocument(fileRow));
+            } else {
+                documents.add(fileRow.getRow());
+            }
+        }
+
+        Mono<Long> writtenCount = documents.isEmpty() ? Mono.just(0L) : batchWrite.apply(documents);
+
+        if (rejectedDocuments.isEmpty()) {
+            return writtenCount;
+        }
+
+        String rejectsCollection = collection + REJECTS_COLLECTION_SUFFIX;
+        Mono<Long> rejectedCount = (ignoreDuplicates ?
+                mongoQueryService.bulkInsertIgnoringDuplicates(rejectedDocuments, rejectsCollection).map(Integer::longValue) :
+                mongoQueryService.saveMany(Mono.just(rejectedDocuments), rejectsCollection).count())
+                .doOnNext(count -> log.debug("{} :: Quarantined {} rejected rows", rejectsCollection, count));
+
+        return Mono.zip(writtenCount, rejectedCount).map(Tuple2::getT1);
+    }
+
     public Mono<Boolean> performBatchInsertion(String sourceCollection, String targetCollection, Boolean keepId) {
 
-        log.info(":: Performing Batch Insertion into {} collection :: useId :: {} Total Memory :: {}, Free Memory :: {}", targetCollection, keepId, (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-        return mongoQueryService.dropCollections(List.of(targetCollection))
-                .thenMany(Flux.defer(() -> {
-
-                    log.info("Dropped collection :: {} Total Memory :: {}, Free Memory :: {}", targetCollection, (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-
-                    AtomicInteger counter = new AtomicInteger(1);
-                    Query query = new Query();
-                    query.fields().exclude(_ID);
-                    Flux<Document> dataFlux = keepId ? mongoQueryService.getAll(Document.class, sourceCollection) :
-                            mongoQueryService.getByQuery(query, Document.class, sourceCollection);
-
-                    return dataFlux
-                            .buffer(BATCH_SIZE)
-                            .concatMap(data -> {
-
-                                log.info("{} :: Got data with size :: {} Total Memory :: {}, Free Memory :: {}", targetCollection, data.size(), (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-                                final Integer batchNumber = counter.getAndIncrement();
-
-                                return mongoQueryService.saveMany(Mono.just(data), targetCollection)
-                                        .count()
-                                        .map(insertedCount -> {
-                                            log.info("{} :: inserted documents count :: {} for batch number :: {} Total Memory :: {}, Free Memory :: {}", targetCollection, insertedCount, batchNumber, (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-                                            return insertedCount;
-                                        });
-                            });
-                }))
-                .collectList()
-                .flatMap(dataCount -> mongoQueryService.hasSameSizedCollections(sourceCollection, targetCollection));
+        return performBatchInsertion(sourceCollection, targetCollection, keepId, Boolean.FALSE);
+    }
+
+    /**
+     * Copies on the server unless filereader.copy.server-side is off, documents then go through the application in batches
+     *
+     * @param append: keeps the documents already in the target instead of replacing it
+     * @return true if the target gained as many documents as the source has
+     */
+    public Mono<Boolean> performBatchInsertion(String sourceCollection, String targetCollection, Boolean keepId, Boolean append) {
+
+        log.info(":: Performing Batch Insertion into {} collection :: useId :: {} :: append :: {} :: serverSide :: {}",
+                targetCollection, keepId, append, serverSideCopy);
+
+        Mono<Long> initialTargetCount = append ? mongoQueryService.getCount(targetCollection) : Mono.just(0L);
+
+        return Mono.zip(mongoQueryService.getCount(sourceCollection), initialTargetCount)
+                .flatMap(counts -> {
+
+                    Mono<Boolean> copy = serverSideCopy ?
+                            mongoQueryService.copyCollectionOnServer(sourceCollection, targetCollection, keepId, append) :
+                            copyThroughApplication(sourceCollection, targetCollection, keepId, append);
+
+                    return copy
+                            .then(mongoQueryService.getCount(targetCollection))
+                            .map(targetCount -> targetCount == counts.getT1() + counts.getT2());
+                });
+    }
+
+    private Mono<Boolean> copyThroughApplication(String sourceCollection, String targetCollection, Boolean keepId, Boolean append) {
+
+        Mono<Boolean> prepareTarget = append ? Mono.just(Boolean.TRUE) : mongoQueryService.dropCollections(List.of(targetCollection));
+
+        return prepareTarget
+                .then(mongoQueryService.copyCollectionInRanges(sourceCollection, targetCollection, keepId))
+                .map(insertedCount -> {
+                    log.info("{} :: inserted documents count :: {} from {}", targetCollection, insertedCount, sourceCollection);
+                    return Boolean.TRUE;
+                });
     }
 
 }
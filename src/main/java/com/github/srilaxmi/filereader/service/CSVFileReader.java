@@ -1,8 +1,12 @@
 package com.github.srilaxmi.filereader.service;
 
-import com.opencsv.CSVReader;
+import com.github.srilaxmi.filereader.dto.ColumnProjection;
 import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.dto.Pair;
+import com.github.srilaxmi.filereader.util.CsvRowIndex;
 import com.github.srilaxmi.filereader.util.FileParseUtil;
+import com.github.srilaxmi.filereader.util.OffsetTrackingCsvReader;
+import com.opencsv.CSVParser;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.springframework.context.annotation.Scope;
@@ -10,12 +14,18 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.Iterator;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -26,17 +36,52 @@ import static com.github.srilaxmi.filereader.util.FileDataReaderUtil.generateDoc
 @Slf4j
 public class CSVFileReader implements FileContentReader {
 
-    private CSVReader csvReader;
+    private static final Integer DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final Integer DEFAULT_PREFETCH = 512;
+    private static final Long THROUGHPUT_LOG_INTERVAL = 100_000L;
+
+    private final Scheduler readScheduler;
+    private final Integer parallelism;
+    private final Integer prefetch;
+    private final Character separator;
+
+    private OffsetTrackingCsvReader csvReader;
+    private String filePath;
     private List<String> headers;
 
+    // field name by column index once a projection is set, null for columns left out of the documents
+    private String[] fieldNames;
+
+    public CSVFileReader() {
+        this(Schedulers.boundedElastic(), DEFAULT_PARALLELISM, DEFAULT_PREFETCH);
+    }
+
+    /**
+     * @param readScheduler: scheduler on which the blocking csv iterator is drained
+     * @param parallelism: number of chunks of raw rows converted to documents concurrently
+     * @param prefetch: number of raw rows read ahead per chunk
+     */
+    public CSVFileReader(Scheduler readScheduler, Integer parallelism, Integer prefetch) {
+        this(readScheduler, parallelism, prefetch, CSVParser.DEFAULT_SEPARATOR);
+    }
+
+    /**
+     * @param separator: field separator, '\t' for TSV files
+     */
+    public CSVFileReader(Scheduler readScheduler, Integer parallelism, Integer prefetch, Character separator) {
+        this.readScheduler = readScheduler;
+        this.parallelism = parallelism;
+        this.prefetch = prefetch;
+        this.separator = separator;
+    }
+
     @Override
     public Mono<Void> initialize(String filePath, String sheetName) {
 
         try {
 
-            log.info("Generating CSV Reader :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-
-            this.csvReader =  new CSVReader(new FileReader(filePath));
+            this.filePath = filePath;
+            this.csvReader = newCsvReader(new FileInputStream(filePath), 0L);
             this.headers = extractHeaders(csvReader);
             return Mono.empty();
 
@@ -48,6 +93,22 @@ public class CSVFileReader implements FileContentReader {
 
     }
 
+    @Override
+    public Mono<Void> initialize(InputStream inputStream, String sheetName) {
+
+        try {
+
+            this.csvReader = newCsvReader(inputStream, 0L);
+            this.headers = extractHeaders(csvReader);
+            return Mono.empty();
+
+        } catch (IOException e) {
+            log.error("ERROR while generating reader: ", e);
+            close();
+            return Mono.error(e);
+        }
+    }
+
     @Override
     public Flux<String> getHeaders() {
 
@@ -57,15 +118,39 @@ public class CSVFileReader implements FileContentReader {
     @Override
     public Flux<FileRow> getAllRows() {
 
-        Iterator<String[]> csvIterator = csvReader.iterator();
-        return Flux.fromIterable(() -> csvIterator)
-                .flatMap(this::getFileRow)
+        AtomicLong rowCount = new AtomicLong();
+        long startTime = System.nanoTime();
+
+        return Flux.<Pair<String[], Long>>generate(sink -> {
+                    try {
+                        String[] values = csvReader.readNext();
+                        if (Objects.isNull(values)) {
+                            sink.complete();
+                        } else {
+                            sink.next(new Pair<>(values, csvReader.getOffset()));
+                        }
+                    } catch (IOException e) {
+                        sink.error(e);
+                    }
+                })
+                .subscribeOn(readScheduler)
+                .buffer(prefetch)
+                .flatMapSequential(chunk -> Mono.fromCallable(() -> getFileRows(chunk))
+                        .subscribeOn(Schedulers.parallel()), parallelism)
+                .flatMapIterable(fileRows -> fileRows)
+                .doOnNext(fileRow -> {
+                    long count = rowCount.incrementAndGet();
+                    if (count % THROUGHPUT_LOG_INTERVAL == 0) {
+                        log.info("Read {} csv rows :: {} rows/sec", count, getRowsPerSecond(count, startTime));
+                    }
+                })
                 .doFinally(signalType -> {
                     if (signalType == SignalType.ON_ERROR) {
                         log.error("doOnFinally: Stream terminated with an error");
                     } else {
                         log.info("doOnFinally: Stream terminated normally");
                     }
+                    log.info("Read {} csv rows in total :: {} rows/sec", rowCount.get(), getRowsPerSecond(rowCount.get(), startTime));
                     close();
                 });
     }
@@ -73,19 +158,183 @@ public class CSVFileReader implements FileContentReader {
     @Override
     public Mono<FileRow> getNextRow(Integer rowNumber) {
 
+        if (Objects.nonNull(rowNumber)) {
+            return getRows(rowNumber.longValue(), 1L).next();
+        }
+
         try  {
-            return Mono.just(csvReader.readNext())
-                    .flatMap(this::getFileRow);
+            return Mono.justOrEmpty(csvReader.readNext())
+                    .flatMap(values -> getFileRow(values, csvReader.getOffset()));
         } catch(IOException e) {
             return Mono.error(e);
         }
     }
 
-    private Mono<FileRow> getFileRow(String[] values) {
+    /**
+     * File backed readers seek to the nearest row of the file's CsvRowIndex and only parse the rows after it,
+     * stream backed readers parse and drop every row before offset
+     */
+    @Override
+    public Flux<FileRow> getRows(Long offset, Long limit) {
+
+        if (Objects.isNull(filePath)) {
+            return FileContentReader.super.getRows(offset, limit);
+        }
+
+        return Mono.fromCallable(() -> {
+                    seekToRow(offset);
+                    return offset;
+                })
+                .subscribeOn(readScheduler)
+                .doOnError(e -> close())
+                .thenMany(Flux.defer(() -> getAllRows().take(limit)));
+    }
+
+    /**
+     * Seeks straight to sourceOffset when the reader was opened on a file, stream backed readers parse and drop the rows
+     */
+    @Override
+    public Mono<Void> skipRows(Long rowCount, Long sourceOffset) {
+
+        try {
+
+            if (Objects.nonNull(sourceOffset) && Objects.nonNull(filePath)) {
+                seek(sourceOffset);
+            } else {
+                skipRecords(rowCount);
+            }
+            return Mono.empty();
+
+        } catch (IOException e) {
+            log.error("ERROR while skipping csv rows: ", e);
+            close();
+            return Mono.error(e);
+        }
+    }
+
+    @Override
+    public void setColumnProjection(ColumnProjection columnProjection) {
+
+        this.fieldNames = columnProjection.getFieldNames(headers);
+    }
+
+    @Override
+    public Long getBytesRead() {
+
+        return Objects.nonNull(csvReader) ? csvReader.getOffset() : 0L;
+    }
+
+    private void seek(Long sourceOffset) throws IOException {
+
+        FileInputStream fileInputStream = new FileInputStream(filePath);
+
+        if (sourceOffset > fileInputStream.getChannel().size()) {
+            fileInputStream.close();
+            throw new IOException("Offset " + sourceOffset + " is beyond the end of file " + filePath);
+        }
+
+        fileInputStream.getChannel().position(sourceOffset);
+        close();
+        this.csvReader = newCsvReader(fileInputStream, sourceOffset);
+
+        log.info("{} :: Resuming csv read from byte offset :: {}", filePath, sourceOffset);
+    }
+
+    private void seekToRow(Long rowNumber) throws IOException {
+
+        CsvRowIndex rowIndex = CsvRowIndex.forFile(filePath, "opencsv" + separator);
+        rowIndex.record(0L, csvReader.getOffset());
+
+        Map.Entry<Long, Long> indexedRow = rowIndex.floor(rowNumber);
+        long skipped = indexedRow.getKey();
+
+        if (skipped > 0) {
+            seek(indexedRow.getValue());
+        }
+
+        String[] values;
+
+        while (skipped < rowNumber && Objects.nonNull(values = csvReader.readNext())) {
+            if (!isRowEmpty(values)) {
+                skipped++;
+                rowIndex.record(skipped, csvReader.getOffset());
+            }
+        }
+
+        log.info("{} :: Positioned at row {} from indexed row {}", filePath, rowNumber, indexedRow.getKey());
+    }
+
+    /**
+     * Tab separated files keep the quote character but have no escape character, backslashes are literal
+     */
+    private OffsetTrackingCsvReader newCsvReader(InputStream inputStream, long startOffset) {
+
+        CSVParser parser = separator == CSVParser.DEFAULT_SEPARATOR ?
+                new CSVParser() :
+                new CSVParser(separator, CSVParser.DEFAULT_QUOTE_CHARACTER, CSVParser.NULL_CHARACTER);
+
+        return new OffsetTrackingCsvReader(inputStream, startOffset, Charset.defaultCharset(), parser);
+    }
+
+    private void skipRecords(Long rowCount) throws IOException {
+
+        long skipped = 0;
+        String[] values;
+
+        while (skipped < rowCount && Objects.nonNull(values = csvReader.readNext())) {
+            if (!isRowEmpty(values)) {
+                skipped++;
+            }
+        }
+    }
+
+    private List<FileRow> getFileRows(List<Pair<String[], Long>> chunk) {
+
+        List<FileRow> fileRows = new ArrayList<>(chunk.size());
+
+        for (Pair<String[], Long> record : chunk) {
+            String[] values = record.getFirst();
+            if (!isRowEmpty(values)) {
+                Document document = generateDocument(values);
+                fileRows.add(FileRow.builder().row(document).sourceOffset(record.getSecond()).build());
+            }
+        }
+
+        return fileRows;
+    }
+
+    /**
+     * Values of columns outside the projection are already split out by the parser, they are only never stripped or put
+     */
+    private Document generateDocument(String[] values) {
+
+        if (Objects.isNull(fieldNames)) {
+            return generateDocumentForCsvRow(List.of(values), headers);
+        }
+
+        Document document = new Document();
+        int columns = Math.min(values.length, fieldNames.length);
+
+        for (int i = 0; i < columns; i++) {
+            if (Objects.nonNull(fieldNames[i])) {
+                document.put(fieldNames[i], Objects.isNull(values[i]) ? "" : values[i].strip());
+            }
+        }
+
+        return document;
+    }
+
+    private Long getRowsPerSecond(long rowCount, long startTime) {
+
+        long elapsedNanos = Math.max(System.nanoTime() - startTime, 1L);
+        return rowCount * 1_000_000_000L / elapsedNanos;
+    }
+
+    private Mono<FileRow> getFileRow(String[] values, Long sourceOffset) {
 
         if (!isRowEmpty(values)) {
-            Document document = generateDocumentForCsvRow(List.of(values), headers);
-            return Mono.just(FileRow.builder().row(document).build());
+            Document document = generateDocument(values);
+            return Mono.just(FileRow.builder().row(document).sourceOffset(sourceOffset).build());
         } else {
             return Mono.empty();
         }
@@ -101,7 +350,7 @@ public class CSVFileReader implements FileContentReader {
         return true;
     }
 
-    private List<String> extractHeaders(CSVReader csvReader) throws IOException {
+    private List<String> extractHeaders(OffsetTrackingCsvReader csvReader) throws IOException {
 
         return Stream.of(csvReader.readNext())
                 .map(FileParseUtil::replaceNewlinesAndStrip)
@@ -112,10 +361,7 @@ public class CSVFileReader implements FileContentReader {
 
         if (Objects.nonNull(this.csvReader)) {
             try {
-                log.info("Before Closing CSVReader :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
                 this.csvReader.close();
-                log.info("After Closing CSVReader :: Total Memory :: {}, Free Memory :: {}", (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-
             } catch (IOException e) {
                 log.warn("ERROR while closing csv-reader");
             }
@@ -1,17 +1,73 @@
 package com.github.srilaxmi.filereader.service;
 
+import com.github.srilaxmi.filereader.dto.ColumnProjection;
 import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.util.RowSamplingUtil;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.InputStream;
+
 public interface FileContentReader {
 
     Mono<Void> initialize(String filePath, String sheetName);
 
+    /**
+     * Initializes the reader directly over a stream, for formats that can be parsed without random access
+     */
+    default Mono<Void> initialize(InputStream inputStream, String sheetName) {
+        return Mono.error(new UnsupportedOperationException(getClass().getSimpleName() + " cannot read from a stream"));
+    }
+
     Flux<String> getHeaders();
 
     Flux<FileRow> getAllRows();
 
+    /**
+     * @param rowNumber: data row to read, counted like getRows, the row after the last one read when null
+     */
     Mono<FileRow> getNextRow(Integer rowNumber);
 
+    /**
+     * Reads limit rows starting at data row offset, counting rows the same way getAllRows emits them.
+     * Like skipRows, meant for a reader that has not read any rows yet.
+     */
+    default Flux<FileRow> getRows(Long offset, Long limit) {
+        return skipRows(offset, null)
+                .thenMany(Flux.defer(() -> getAllRows().take(limit)));
+    }
+
+    /**
+     * Uniform random sample of the rows of the file, in file order. Reads every row once and keeps only the sample.
+     *
+     * @param seed: makes the sample repeatable, a random sample on every call when null
+     */
+    default Flux<FileRow> sampleRows(Integer sampleSize, Long seed) {
+        return RowSamplingUtil.sample(getAllRows(), sampleSize, seed)
+                .flatMapIterable(fileRows -> fileRows);
+    }
+
+    /**
+     * Positions the reader past rows that were already consumed, counting rows the same way getAllRows emits them
+     *
+     * @param sourceOffset: FileRow.sourceOffset of the last skipped row, if the reader recorded one
+     */
+    Mono<Void> skipRows(Long rowCount, Long sourceOffset);
+
+    /**
+     * Puts only the projected columns in the documents of rows read after the call, under their renamed field names.
+     * Readers skip decoding the cells of other columns where they can, rows are still skipped as empty based on all
+     * of their cells so that row counts and skipRows are the same with or without a projection.
+     *
+     * @throws IllegalArgumentException if a projected column is not a header of the file
+     */
+    void setColumnProjection(ColumnProjection columnProjection);
+
+    /**
+     * @return number of source bytes consumed by the reader so far
+     */
+    default Long getBytesRead() {
+        return 0L;
+    }
+
 }
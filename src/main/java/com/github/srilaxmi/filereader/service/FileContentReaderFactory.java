@@ -1,13 +1,20 @@
 package com.github.srilaxmi.filereader.service;
 
+import com.github.srilaxmi.filereader.config.SchedulerConfig;
 import com.github.srilaxmi.filereader.constants.FileExtension;
+import com.github.srilaxmi.filereader.metrics.IngestionMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.io.File;
+import java.io.InputStream;
 import java.util.EnumMap;
 import java.util.Locale;
 import java.util.Map;
@@ -18,9 +25,41 @@ public class FileContentReaderFactory {
 
     //Use this service through File Extraction service, not directly
 
+    @Autowired
+    @Qualifier(SchedulerConfig.FILE_READER_SCHEDULER)
+    private Scheduler fileReaderScheduler;
+
+    @Autowired
+    private IngestionMetrics ingestionMetrics;
+
+    @Value("${filereader.csv.parallelism:4}")
+    private Integer csvParallelism;
+
+    @Value("${filereader.csv.prefetch:512}")
+    private Integer csvPrefetch;
+
+    @Value("${filereader.csv.memory-mapped.enabled:false}")
+    private Boolean csvMemoryMapped;
+
+    @Value("${filereader.csv.memory-mapped.min-file-bytes:8388608}")
+    private Long csvMemoryMappedMinFileBytes;
+
+    @Value("${filereader.csv.memory-mapped.segment-bytes:16777216}")
+    private Long csvSegmentBytes;
+
     @Scope("prototype")
     public CSVFileReader getCsvFileReader() {
-        return new CSVFileReader();
+        return new CSVFileReader(fileReaderScheduler, csvParallelism, csvPrefetch);
+    }
+
+    @Scope("prototype")
+    public CSVFileReader getTsvFileReader() {
+        return new CSVFileReader(fileReaderScheduler, csvParallelism, csvPrefetch, '\t');
+    }
+
+    @Scope("prototype")
+    public MappedCsvFileReader getMappedCsvFileReader() {
+        return new MappedCsvFileReader(fileReaderScheduler, csvParallelism, csvSegmentBytes);
     }
     private static final long FILE_SIZE_THRESHOLD = 1024L * 1024L; // 1 MB threshold
 
@@ -34,6 +73,11 @@ public class FileContentReaderFactory {
         return new ApacheFileReader();
     }
 
+    @Scope("prototype")
+    public StreamingXlsxFileReader getStreamingXlsxFileReader() {
+        return new StreamingXlsxFileReader();
+    }
+
     public Mono<FileContentReader> createFileReaderService(
             String fileExtension, String filePath, String sheetName
     ) {
@@ -41,7 +85,54 @@ public class FileContentReaderFactory {
         FileExtension extension = FileExtension.valueOf(fileExtension);
         FileContentReader fileContentReader = initializeReaderMap(filePath).get(extension);
 
-        return fileContentReader.initialize(filePath, sheetName).thenReturn(fileContentReader);
+        return ingestionMetrics.timeInitialize(fileContentReader, () -> fileContentReader.initialize(filePath, sheetName))
+                .thenReturn(fileContentReader);
+    }
+
+    public Mono<FileContentReader> createFileReaderService(
+            String fileExtension, InputStream inputStream, String sheetName
+    ) {
+
+        if (!isStreamable(fileExtension)) {
+            return Mono.error(new UnsupportedOperationException("Stream parsing is not supported for extension : " + fileExtension));
+        }
+
+        FileContentReader fileContentReader = FileExtension.TSV.name().equals(fileExtension) ?
+                this.getTsvFileReader() :
+                this.getCsvFileReader();
+        return ingestionMetrics.timeInitialize(fileContentReader, () -> fileContentReader.initialize(inputStream, sheetName))
+                .thenReturn(fileContentReader);
+    }
+
+    /**
+     * Parses a workbook once for reading several of its sheets, see FileExtractionService.extractSheets
+     */
+    public Mono<SharedWorkbook> openWorkbook(String filePath) {
+
+        String fileName = new File(filePath).getName();
+        String fileExtension = FilenameUtils.getExtension(fileName).toUpperCase(Locale.ROOT);
+
+        return Mono.fromCallable(() -> {
+            switch (FileExtension.valueOf(fileExtension)) {
+                case XLSX:
+                    return new File(filePath).length() >= FILE_SIZE_THRESHOLD ?
+                            StreamingXlsxFileReader.openWorkbook(filePath) :
+                            ApacheFileReader.openWorkbook(filePath);
+                case XLS:
+                case XLSB:
+                    return AsposeFileReader.openWorkbook(filePath);
+                default:
+                    throw new UnsupportedOperationException("Multi sheet parsing is not supported for extension : " + fileExtension);
+            }
+        });
+    }
+
+    /**
+     * TSV streams go through the csv reader with a tab separator, TSV files on disk are still read with Aspose
+     */
+    public Boolean isStreamable(String fileExtension) {
+
+        return FileExtension.CSV.name().equals(fileExtension) || FileExtension.TSV.name().equals(fileExtension);
     }
 
     public Mono<FileContentReader> getFileReaderService(
@@ -58,7 +149,7 @@ public class FileContentReaderFactory {
 
         EnumMap<FileExtension, FileContentReader> readerMap = new EnumMap<>(FileExtension.class);
 
-        readerMap.put(FileExtension.CSV, this.getCsvFileReader());
+        readerMap.put(FileExtension.CSV, getCsvFileReaderBasedOnLength(filePath));
         readerMap.put(FileExtension.TSV, this.getAsposeFileReader());
         readerMap.put(FileExtension.XLS, this.getAsposeFileReader());
         readerMap.put(FileExtension.XLSB, this.getAsposeFileReader());
@@ -70,7 +161,13 @@ public class FileContentReaderFactory {
     private FileContentReader getFileReaderBasedOnLength(String filePath) {
 
         long fileLength = new File(filePath).length();
-        return (fileLength >= FILE_SIZE_THRESHOLD) ? this.getAsposeFileReader() : this.getApacheFileReader();
+        return (fileLength >= FILE_SIZE_THRESHOLD) ? this.getStreamingXlsxFileReader() : this.getApacheFileReader();
+    }
+
+    private FileContentReader getCsvFileReaderBasedOnLength(String filePath) {
+
+        long fileLength = new File(filePath).length();
+        return (csvMemoryMapped && fileLength >= csvMemoryMappedMinFileBytes) ? this.getMappedCsvFileReader() : this.getCsvFileReader();
     }
 
 
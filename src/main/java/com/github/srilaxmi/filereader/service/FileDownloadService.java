@@ -1,21 +1,50 @@
 package com.github.srilaxmi.filereader.service;
 
 
+import com.github.srilaxmi.filereader.dto.ExportRequest;
+import com.github.srilaxmi.filereader.dto.FilterRule;
+import com.github.srilaxmi.filereader.mongo.MongoQueryService;
 import com.github.srilaxmi.filereader.util.FileGenerationUtil;
+import com.opencsv.CSVWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+import static com.github.srilaxmi.filereader.constants.GlobalConstants.EMPTY_STRING;
 import static com.github.srilaxmi.filereader.constants.GlobalConstants.HEADERS;
 
 @Service
 @Slf4j
 public class FileDownloadService {
 
+    @Autowired
+    private MongoQueryService mongoQueryService;
+
+    @Value("${filereader.export.chunk-rows:1000}")
+    private Integer exportChunkRows;
+
+    @Value("${filereader.export.cursor-batch-size:1000}")
+    private Integer exportCursorBatchSize;
+
     public Mono<Boolean> generateFile(String fileName) {
 
         return Flux.just(new Document())
@@ -32,4 +61,93 @@ public class FileDownloadService {
                 });
     }
 
+    /**
+     * Streams the matching documents of a collection as CSV chunks. Columns are the requested fields,
+     * or the fields of the first document when none are given. Only one chunk of rows is held at a time,
+     * further documents are pulled from the cursor as the client consumes the response.
+     */
+    public Flux<DataBuffer> exportCollectionAsCsv(String collection, ExportRequest exportRequest, DataBufferFactory bufferFactory) {
+
+        ExportRequest request = Objects.requireNonNullElseGet(exportRequest, ExportRequest::new);
+        Query query = buildExportQuery(request);
+        AtomicLong rowsExported = new AtomicLong();
+
+        return mongoQueryService.getByQuery(query, Document.class, collection)
+                .switchOnFirst((signal, documents) -> {
+
+                    if (!signal.hasValue()) {
+                        return CollectionUtils.isEmpty(request.getFields()) ?
+                                Flux.empty() :
+                                Flux.just(encodeRows(request.getFields(), List.of(), true, bufferFactory));
+                    }
+
+                    List<String> headers = CollectionUtils.isEmpty(request.getFields()) ?
+                            new ArrayList<>(Objects.requireNonNull(signal.get()).keySet()) :
+                            request.getFields();
+
+                    return Flux.concat(
+                            Mono.fromCallable(() -> encodeRows(headers, List.of(), true, bufferFactory)),
+                            documents.buffer(exportChunkRows)
+                                    .doOnNext(chunk -> rowsExported.addAndGet(chunk.size()))
+                                    .map(chunk -> encodeRows(headers, chunk, false, bufferFactory))
+                    );
+                })
+                .doOnComplete(() -> log.info("{} :: Exported {} rows as csv", collection, rowsExported.get()))
+                .doOnError(e -> log.error("{} :: ERROR while exporting collection after {} rows", collection, rowsExported.get(), e))
+                .doOnCancel(() -> log.warn("{} :: Export cancelled after {} rows", collection, rowsExported.get()));
+    }
+
+    private Query buildExportQuery(ExportRequest request) {
+
+        Query query = new Query();
+
+        if (!CollectionUtils.isEmpty(request.getFilterRules())) {
+            List<Criteria> criteria = request.getFilterRules()
+                    .stream()
+                    .map(this::createCriteria)
+                    .collect(Collectors.toList());
+            query.addCriteria(new Criteria().andOperator(criteria.toArray(new Criteria[0])));
+        }
+
+        if (!CollectionUtils.isEmpty(request.getFields())) {
+            request.getFields().forEach(field -> query.fields().include(field));
+        }
+
+        return query.cursorBatchSize(exportCursorBatchSize);
+    }
+
+    private Criteria createCriteria(FilterRule filterRule) {
+
+        return filterRule.getOperator().createCriteria(filterRule.getField(), filterRule.getValue());
+    }
+
+    private DataBuffer encodeRows(List<String> headers, List<Document> documents, Boolean includeHeader, DataBufferFactory bufferFactory) {
+
+        StringWriter stringWriter = new StringWriter();
+        CSVWriter csvWriter = new CSVWriter(stringWriter);
+
+        if (includeHeader) {
+            csvWriter.writeNext(headers.toArray(new String[0]));
+        }
+
+        String[] row = new String[headers.size()];
+
+        for (Document document : documents) {
+            for (int i = 0; i < headers.size(); i++) {
+                Object value = document.get(headers.get(i));
+                row[i] = Objects.isNull(value) ? EMPTY_STRING : value.toString();
+            }
+            csvWriter.writeNext(row);
+        }
+
+        try {
+            csvWriter.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] bytes = stringWriter.toString().getBytes(StandardCharsets.UTF_8);
+        return bufferFactory.wrap(bytes);
+    }
+
 }
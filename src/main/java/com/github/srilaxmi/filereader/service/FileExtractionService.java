@@ -1,14 +1,25 @@
 package com.github.srilaxmi.filereader.service;
 
+import com.github.srilaxmi.filereader.config.SchedulerConfig;
 import com.github.srilaxmi.filereader.constants.FileExtension;
+import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.dto.ImportCheckpoint;
+import com.github.srilaxmi.filereader.metrics.IngestionMetrics;
+import com.github.srilaxmi.filereader.util.DataBufferInputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
 
 import java.io.File;
 import java.io.IOException;
@@ -17,6 +28,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
@@ -29,6 +42,32 @@ public class FileExtractionService {
     @Autowired
     private FileContentReaderFactory fileContentReaderFactory;
 
+    @Autowired
+    @Qualifier(SchedulerConfig.FILE_READER_SCHEDULER)
+    private Scheduler fileReaderScheduler;
+
+    @Autowired
+    private IngestionMetrics ingestionMetrics;
+
+    @Value("${filereader.zip.parallel-extraction:true}")
+    private Boolean parallelZipExtraction;
+
+    @Value("${filereader.zip.concurrency:4}")
+    private Integer zipConcurrency;
+
+    @Value("${filereader.workbook.sheet-concurrency:4}")
+    private Integer sheetConcurrency;
+
+    @Value("${filereader.upload.streaming.prefetch-buffers:64}")
+    private Integer uploadPrefetchBuffers;
+
+    @Value("${filereader.preview.max-rows:1000}")
+    private Long previewMaxRows;
+
+    /**
+     * Readers are opened on the file reader scheduler, initializing one can load a whole workbook and callers may
+     * subscribe from a mongo driver thread, e.g. after loading an import checkpoint
+     */
     public Flux<FileContentReader> extractFile(
             String filePath, String sheetName
     ) throws IOException {
@@ -37,14 +76,269 @@ public class FileExtractionService {
         String fileExtension = FilenameUtils.getExtension(fileName).toUpperCase(Locale.ROOT);
 
         if (StringUtils.equalsIgnoreCase(fileExtension, "ZIP")) {
-            return extractZipFile(filePath, sheetName);
+            return extractZipFile(filePath, sheetName)
+                    .subscribeOn(fileReaderScheduler);
         } else {
             return fileContentReaderFactory.createFileReaderService(fileExtension, filePath, sheetName)
+                    .subscribeOn(fileReaderScheduler)
                     .flatMapMany(Flux::just);
         }
 
     }
 
+    public Flux<FileRow> extractFileRows(
+            String filePath, String sheetName
+    ) throws IOException {
+
+        return extractFileRows(filePath, sheetName, fileContentReader -> {});
+    }
+
+    /**
+     * @param readerListener: notified of every reader opened for the file, e.g. to track bytes consumed
+     */
+    public Flux<FileRow> extractFileRows(
+            String filePath, String sheetName, Consumer<FileContentReader> readerListener
+    ) throws IOException {
+
+        String fileName = new File(filePath).getName();
+        String fileExtension = FilenameUtils.getExtension(fileName).toUpperCase(Locale.ROOT);
+
+        if (StringUtils.equalsIgnoreCase(fileExtension, "ZIP") && parallelZipExtraction) {
+            return extractZipFileRowsInParallel(filePath, sheetName, readerListener);
+        } else {
+            return extractFile(filePath, sheetName)
+                    .doOnNext(readerListener)
+                    .concatMap(this::getAllRows);
+        }
+    }
+
+    /**
+     * Rows offset to offset + limit of a file or of one sheet of a workbook, see FileContentReader.getRows
+     */
+    public Flux<FileRow> getRowRange(
+            String filePath, String sheetName, Long offset, Long limit
+    ) {
+
+        if (offset < 0 || limit < 1 || limit > previewMaxRows) {
+            return Flux.error(new IllegalArgumentException("Offset must not be negative and limit must be between 1 and " + previewMaxRows));
+        }
+
+        return openPreviewReader(filePath, sheetName)
+                .flatMapMany(fileContentReader -> fileContentReader.getRows(offset, limit));
+    }
+
+    /**
+     * Random sample of the rows of a file or of one sheet of a workbook, see FileContentReader.sampleRows
+     */
+    public Flux<FileRow> getRowSample(
+            String filePath, String sheetName, Integer sampleSize, Long seed
+    ) {
+
+        if (sampleSize < 1 || sampleSize > previewMaxRows) {
+            return Flux.error(new IllegalArgumentException("Sample size must be between 1 and " + previewMaxRows));
+        }
+
+        return openPreviewReader(filePath, sheetName)
+                .flatMapMany(fileContentReader -> fileContentReader.sampleRows(sampleSize, seed));
+    }
+
+    /**
+     * Parses a CSV or TSV upload while it is still arriving, content is requested only as fast as rows are consumed.
+     * The reader is opened on the file reader scheduler as reading the headers blocks until they have been uploaded.
+     */
+    public Flux<FileRow> extractStreamRows(
+            String fileName, Flux<DataBuffer> content, Consumer<FileContentReader> readerListener
+    ) {
+
+        String fileExtension = FilenameUtils.getExtension(fileName).toUpperCase(Locale.ROOT);
+
+        if (!fileContentReaderFactory.isStreamable(fileExtension)) {
+            return Flux.error(new IllegalArgumentException("Streaming ingest is not supported for file : " + fileName));
+        }
+
+        log.info("{} :: Streaming upload with {} prefetched buffers", fileName, uploadPrefetchBuffers);
+
+        return Flux.using(
+                () -> new DataBufferInputStream(content, uploadPrefetchBuffers),
+                inputStream -> fileContentReaderFactory.createFileReaderService(fileExtension, inputStream, null)
+                        .doOnNext(readerListener)
+                        .flatMapMany(this::getAllRows),
+                this::closeQuietly
+        ).subscribeOn(fileReaderScheduler);
+    }
+
+    /**
+     * Continues a single file import after the rows committed in the checkpoint, zip files are always read from the start
+     */
+    public Flux<FileRow> extractFileRows(
+            String filePath, String sheetName, Consumer<FileContentReader> readerListener, ImportCheckpoint checkpoint
+    ) throws IOException {
+
+        String fileName = new File(filePath).getName();
+        String fileExtension = FilenameUtils.getExtension(fileName).toUpperCase(Locale.ROOT);
+
+        if (Objects.isNull(checkpoint) || checkpoint.getRowsCommitted() == 0 || StringUtils.equalsIgnoreCase(fileExtension, "ZIP")) {
+            return extractFileRows(filePath, sheetName, readerListener);
+        }
+
+        return extractFile(filePath, sheetName)
+                .doOnNext(readerListener)
+                .concatMap(fileContentReader -> fileContentReader
+                        .skipRows(checkpoint.getRowsCommitted(), checkpoint.getSourceOffset())
+                        .thenMany(Flux.defer(() -> getAllRows(fileContentReader))));
+    }
+
+    /**
+     * Parses the workbook once and hands every selected sheet's rows to sheetHandler, up to sheetConcurrency
+     * sheets at a time. The workbook is released once all sheet handlers have terminated.
+     *
+     * @param sheetNames: sheets to read, all sheets of the workbook when empty
+     */
+    public <T> Flux<T> extractSheets(
+            String filePath, List<String> sheetNames, Consumer<FileContentReader> readerListener,
+            BiFunction<String, Flux<FileRow>, Publisher<T>> sheetHandler
+    ) {
+
+        return Flux.usingWhen(
+                fileContentReaderFactory.openWorkbook(filePath).subscribeOn(fileReaderScheduler),
+                sharedWorkbook -> getSelectedSheets(filePath, sharedWorkbook, sheetNames)
+                        .flatMap(sheetName -> {
+                            FileContentReader fileContentReader = sharedWorkbook.createSheetReader();
+                            log.info("{} :: Reading sheet :: {}", filePath, sheetName);
+                            return ingestionMetrics.timeInitialize(fileContentReader, () -> fileContentReader.initialize(filePath, sheetName))
+                                    .then(Mono.fromRunnable(() -> readerListener.accept(fileContentReader)))
+                                    .thenMany(Flux.defer(() -> sheetHandler.apply(sheetName, getAllRows(fileContentReader))))
+                                    .subscribeOn(fileReaderScheduler);
+                        }, sheetConcurrency),
+                sharedWorkbook -> Mono.fromRunnable(sharedWorkbook::close),
+                (sharedWorkbook, error) -> Mono.fromRunnable(sharedWorkbook::close),
+                sharedWorkbook -> Mono.fromRunnable(sharedWorkbook::close)
+        );
+    }
+
+    private Flux<String> getSelectedSheets(String filePath, SharedWorkbook sharedWorkbook, List<String> sheetNames) {
+
+        if (Objects.isNull(sheetNames) || sheetNames.isEmpty()) {
+            return Flux.fromIterable(sharedWorkbook.getSheetNames());
+        }
+
+        List<String> missingSheets = sheetNames.stream()
+                .filter(sheetName -> !sharedWorkbook.getSheetNames().contains(sheetName))
+                .collect(Collectors.toList());
+
+        if (!missingSheets.isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Sheets not found in " + new File(filePath).getName() + " : " + missingSheets));
+        }
+
+        return Flux.fromIterable(sheetNames);
+    }
+
+    private Mono<FileContentReader> openPreviewReader(String filePath, String sheetName) {
+
+        String fileName = new File(filePath).getName();
+        String fileExtension = FilenameUtils.getExtension(fileName).toUpperCase(Locale.ROOT);
+
+        if (!EnumUtils.isValidEnum(FileExtension.class, fileExtension)) {
+            return Mono.error(new IllegalArgumentException("Row previews are not supported for file : " + fileName));
+        }
+
+        return fileContentReaderFactory.createFileReaderService(fileExtension, filePath, sheetName)
+                .subscribeOn(fileReaderScheduler);
+    }
+
+    /**
+     * Decodes up to zipConcurrency entries at once. Streamable entries are parsed straight from the zip entry
+     * stream, the rest are copied to a temp file which is deleted as soon as the entry's rows are drained.
+     */
+    private Flux<FileRow> extractZipFileRowsInParallel(
+            String filePath, String sheetName, Consumer<FileContentReader> readerListener
+    ) throws IOException {
+
+        log.info("Extracting zip file :: {} with concurrency :: {}", filePath, zipConcurrency);
+
+        Path extractionDir = Files.createTempDirectory("");
+
+        return Mono.fromCallable(() -> new ZipFile(filePath))
+                .flatMapMany(zipFile -> getZipEntryFlux(filePath, zipFile)
+                        .filter(zipEntry -> checkIfFileExtensionApplicable(Path.of(getZipEntryFileName(zipEntry))))
+                        .flatMap(zipEntry -> getZipEntryRows(sheetName, zipEntry, extractionDir, zipFile, readerListener)
+                                .subscribeOn(fileReaderScheduler), zipConcurrency)
+                        .doFinally(signalType -> {
+                            if (signalType == SignalType.ON_ERROR) {
+                                log.error("doOnFinally: Stream terminated with an error");
+                            } else {
+                                log.info("doOnFinally: Stream terminated normally");
+                            }
+                            clearGarbageResources(zipFile);
+                            deleteQuietly(extractionDir);
+                        }));
+    }
+
+    private Flux<FileRow> getZipEntryRows(
+            String sheetName, ZipEntry zipEntry, Path extractionDir, ZipFile zipFile,
+            Consumer<FileContentReader> readerListener
+    ) {
+
+        String fileName = getZipEntryFileName(zipEntry);
+        String fileExtension = FilenameUtils.getExtension(fileName).toUpperCase(Locale.ROOT);
+
+        if (fileContentReaderFactory.isStreamable(fileExtension)) {
+
+            log.info("{} :: Streaming zip file entry", zipEntry.getName());
+            return Flux.using(
+                    () -> zipFile.getInputStream(zipEntry),
+                    inputStream -> fileContentReaderFactory.createFileReaderService(fileExtension, inputStream, sheetName)
+                            .doOnNext(readerListener)
+                            .flatMapMany(this::getAllRows),
+                    this::closeQuietly
+            );
+        }
+
+        return Flux.using(
+                () -> {
+                    Path outputPath = Files.createTempFile(extractionDir, "", "-" + fileName);
+                    log.info("{} :: Copying zip file entry :: to filePath :: {}", zipEntry.getName(), outputPath);
+                    try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+                        Files.copy(inputStream, outputPath, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    return outputPath;
+                },
+                outputPath -> fileContentReaderFactory.createFileReaderService(fileExtension, String.valueOf(outputPath), sheetName)
+                        .doOnNext(readerListener)
+                        .flatMapMany(this::getAllRows),
+                this::deleteQuietly
+        );
+    }
+
+    private Flux<FileRow> getAllRows(FileContentReader fileContentReader) {
+
+        return ingestionMetrics.recordRows(fileContentReader, fileContentReader.getAllRows());
+    }
+
+    private String getZipEntryFileName(ZipEntry zipEntry) {
+
+        String entryName = zipEntry.getName();
+        return entryName.contains("/") ? entryName.substring(entryName.lastIndexOf('/') + 1) : entryName;
+    }
+
+    private void deleteQuietly(Path path) {
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Error deleting temp file: {}", path, e);
+        }
+    }
+
+    private void closeQuietly(InputStream inputStream) {
+
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.warn("Error closing input stream", e);
+        }
+    }
+
     private Flux<FileContentReader> extractZipFile(
             String filePath, String sheetName
     ) throws IOException {
@@ -89,13 +383,13 @@ public class FileExtractionService {
             return Mono.empty();
         }
 
-        log.info("{} :: Copying zip file entry :: to filePath :: {} Total Memory :: {}, Free Memory :: {}", zipEntry.getName(), outputPath, (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+        log.info("{} :: Copying zip file entry :: to filePath :: {}", zipEntry.getName(), outputPath);
 
         try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
 
             Files.copy(inputStream, outputPath, StandardCopyOption.REPLACE_EXISTING);
 
-            log.info("{} :: Parsing zip file entry :: Total Memory :: {}, Free Memory :: {}", outputPath, (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
+            log.info("{} :: Parsing zip file entry", outputPath);
             return fileContentReaderFactory.getFileReaderService(String.valueOf(outputPath), sheetName);
         }
     }
@@ -126,7 +420,6 @@ public class FileExtractionService {
     }
 
     private void clearGarbageResources(ZipFile zipFile) {
-        log.info("{} :: Before closing zip file :: Total Memory :: {}, Free Memory :: {}", zipFile, (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
 
         try {
             zipFile.close();
@@ -134,9 +427,6 @@ public class FileExtractionService {
         } catch (IOException e) {
             log.warn("Error closing zip file: {}", zipFile.getName(), e);
         }
-
-        log.info("{} :: After closing zip file :: Total Memory :: {}, Free Memory :: {}", zipFile, (Runtime.getRuntime().totalMemory() / (1024 * 1024)), (Runtime.getRuntime().freeMemory() / (1024 * 1024)));
-
     }
 
 }
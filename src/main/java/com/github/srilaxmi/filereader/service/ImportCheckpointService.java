@@ -0,0 +1,210 @@
+package com.github.srilaxmi.filereader.service;
+
+import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.dto.ImportCheckpoint;
+import com.github.srilaxmi.filereader.mongo.MongoQueryService;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import static com.github.srilaxmi.filereader.constants.GlobalConstants.IMPORT_CHECKPOINTS_COLLECTION;
+import static com.github.srilaxmi.filereader.constants.GlobalConstants.REJECTS_COLLECTION_SUFFIX;
+import static com.github.srilaxmi.filereader.constants.GlobalConstants._ID;
+
+/**
+ * Persists import progress per (collection, file, sheet), so that a failed or cancelled import
+ * of the same file into the same collection continues after the last committed batch
+ */
+@Component
+@Slf4j
+public class ImportCheckpointService {
+
+    private static final int CHECKSUM_BYTES = 64 * 1024;
+
+    // row _ids keep the timestamp and part of the random bytes of the run's ObjectId, the row index fills the rest
+    private static final int RUN_ID_PREFIX_BYTES = 7;
+    private static final int ROW_INDEX_BYTES = 5;
+
+    @Autowired
+    private MongoQueryService mongoQueryService;
+
+    /**
+     * A new checkpoint is saved before any row is written, so rows of a run that fails before its first commit
+     * get the same _ids when the import is resumed. A stored checkpoint is only resumed when the target collection
+     * and its rejects collection still hold every row it committed, e.g. not after the collection was dropped.
+     *
+     * @param resume: when false a stored checkpoint is replaced and the file is imported from the first row
+     * @return the stored checkpoint if it was recorded for the same file contents, else a new empty checkpoint
+     */
+    public Mono<ImportCheckpoint> getOrCreateCheckpoint(String path, String sheetName, String collection, Boolean resume) {
+
+        return Mono.fromCallable(() -> newCheckpoint(path, sheetName, collection))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(newCheckpoint -> getStoredCheckpoint(newCheckpoint, resume)
+                        .doOnNext(checkpoint -> {
+                            checkpoint.setResumed(Boolean.TRUE);
+                            log.info("{} :: Resuming import of {} after {} committed rows",
+                                    collection, checkpoint.getFileName(), checkpoint.getRowsCommitted());
+                        })
+                        .switchIfEmpty(Mono.defer(() -> mongoQueryService.save(newCheckpoint, IMPORT_CHECKPOINTS_COLLECTION))));
+    }
+
+    /**
+     * Gives every row an ObjectId _id derived from the checkpoint's run and the row's index in the file, counted the way
+     * rowsCommitted counts rows, so rows written again after a resume collide with their earlier copies. Ids of a run
+     * increase with the row index, so inserts append to the _id index like server generated ids do.
+     */
+    public Flux<FileRow> assignRowIds(Flux<FileRow> fileRows, ImportCheckpoint checkpoint) {
+
+        return Flux.defer(() -> {
+            AtomicLong rowIndex = new AtomicLong(checkpoint.getRowsCommitted());
+            return fileRows.doOnNext(fileRow -> fileRow.getRow().put(_ID, getRowId(checkpoint, rowIndex.getAndIncrement())));
+        });
+    }
+
+    /**
+     * Advances the checkpoint past a committed batch, batches have to be committed in file order
+     */
+    public Mono<ImportCheckpoint> commitBatch(ImportCheckpoint checkpoint, List<FileRow> batch) {
+
+        checkpoint.setRowsCommitted(checkpoint.getRowsCommitted() + batch.size());
+        checkpoint.setSourceOffset(batch.get(batch.size() - 1).getSourceOffset());
+        checkpoint.setUpdatedAt(Instant.now());
+
+        return mongoQueryService.save(checkpoint, IMPORT_CHECKPOINTS_COLLECTION);
+    }
+
+    public Mono<Long> deleteCheckpoint(ImportCheckpoint checkpoint) {
+
+        Query query = new Query(Criteria.where(_ID).is(checkpoint.getId()));
+        return mongoQueryService.deleteByQuery(query, IMPORT_CHECKPOINTS_COLLECTION);
+    }
+
+    private ImportCheckpoint newCheckpoint(String path, String sheetName, String collection) throws IOException {
+
+        File file = new File(path);
+
+        return ImportCheckpoint.builder()
+                .id(getCheckpointId(file.getName(), sheetName, collection))
+                .collection(collection)
+                .fileName(file.getName())
+                .sheetName(sheetName)
+                .fileSize(file.length())
+                .fileChecksum(getChecksum(file))
+                .runId(new ObjectId().toHexString())
+                .rowsCommitted(0L)
+                .updatedAt(Instant.now())
+                .resumed(Boolean.FALSE)
+                .build();
+    }
+
+    private ObjectId getRowId(ImportCheckpoint checkpoint, long rowIndex) {
+
+        byte[] bytes = new ObjectId(checkpoint.getRunId()).toByteArray();
+
+        for (int i = 0; i < ROW_INDEX_BYTES; i++) {
+            bytes[RUN_ID_PREFIX_BYTES + i] = (byte) (rowIndex >>> (8 * (ROW_INDEX_BYTES - 1 - i)));
+        }
+
+        return new ObjectId(bytes);
+    }
+
+    private Mono<ImportCheckpoint> getStoredCheckpoint(ImportCheckpoint newCheckpoint, Boolean resume) {
+
+        if (!resume) {
+            log.info("{} :: Importing {} from the first row, any checkpoint of it is replaced",
+                    newCheckpoint.getCollection(), newCheckpoint.getFileName());
+            return Mono.empty();
+        }
+
+        return mongoQueryService
+                .getByExactId(newCheckpoint.getId(), ImportCheckpoint.class, IMPORT_CHECKPOINTS_COLLECTION)
+                .filter(checkpoint -> isSameFile(checkpoint, newCheckpoint))
+                .filterWhen(this::hasCommittedRows);
+    }
+
+    /**
+     * Every committed row is either in the target collection or in its rejects collection under its row _id,
+     * so both are counted over the _id range of the committed rows
+     */
+    private Mono<Boolean> hasCommittedRows(ImportCheckpoint checkpoint) {
+
+        if (Objects.isNull(checkpoint.getRunId()) || !ObjectId.isValid(checkpoint.getRunId())) {
+            log.info("{} :: Ignoring checkpoint of {} without a run id", checkpoint.getCollection(), checkpoint.getFileName());
+            return Mono.just(Boolean.FALSE);
+        }
+
+        if (checkpoint.getRowsCommitted() == 0) {
+            return Mono.just(Boolean.TRUE);
+        }
+
+        Query query = new Query(Criteria.where(_ID)
+                .gte(getRowId(checkpoint, 0))
+                .lt(getRowId(checkpoint, checkpoint.getRowsCommitted())));
+
+        return Mono.zip(
+                        mongoQueryService.getCountByQuery(query, checkpoint.getCollection()),
+                        mongoQueryService.getCountByQuery(query, checkpoint.getCollection() + REJECTS_COLLECTION_SUFFIX)
+                )
+                .map(counts -> {
+                    long storedRows = counts.getT1() + counts.getT2();
+                    if (storedRows != checkpoint.getRowsCommitted()) {
+                        log.info("{} :: Ignoring checkpoint of {} as {} of its {} committed rows are stored",
+                                checkpoint.getCollection(), checkpoint.getFileName(), storedRows, checkpoint.getRowsCommitted());
+                        return Boolean.FALSE;
+                    }
+                    return Boolean.TRUE;
+                });
+    }
+
+    private String getCheckpointId(String fileName, String sheetName, String collection) {
+
+        return Objects.isNull(sheetName) ?
+                collection + "/" + fileName :
+                collection + "/" + fileName + "/" + sheetName;
+    }
+
+    private Boolean isSameFile(ImportCheckpoint checkpoint, ImportCheckpoint newCheckpoint) {
+
+        boolean sameFile = Objects.equals(checkpoint.getFileSize(), newCheckpoint.getFileSize()) &&
+                Objects.equals(checkpoint.getFileChecksum(), newCheckpoint.getFileChecksum());
+
+        if (!sameFile) {
+            log.info("{} :: Ignoring checkpoint of {} as the file has changed", checkpoint.getCollection(), checkpoint.getFileName());
+        }
+
+        return sameFile;
+    }
+
+    /**
+     * Checksum of the leading bytes only, together with the size it tells a re-upload of the same file from a different one
+     */
+    private Long getChecksum(File file) throws IOException {
+
+        CRC32 crc32 = new CRC32();
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+            byte[] bytes = inputStream.readNBytes(CHECKSUM_BYTES);
+            crc32.update(bytes);
+        }
+
+        return crc32.getValue();
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.github.srilaxmi.filereader.service;
+
+import com.github.srilaxmi.filereader.constants.UploadStatus;
+import com.github.srilaxmi.filereader.dto.ColumnProjection;
+import com.github.srilaxmi.filereader.dto.ColumnValidation;
+import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.dto.FileUploadStatus;
+import com.github.srilaxmi.filereader.dto.ValidationError;
+import lombok.Getter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mutable progress of a single file import, updated from the ingestion pipeline and read by status calls
+ */
+@Getter
+public class ImportJob {
+
+    private static final Long THROUGHPUT_SAMPLE_MILLIS = 1000L;
+
+    private final String jobId = UUID.randomUUID().toString();
+    private final String fileName;
+    private final String collection;
+    private final List<ColumnValidation> columnValidations;
+    private final List<String> uniqueKeyColumns;
+    private final ColumnProjection columnProjection;
+    private final Instant startedAt = Instant.now();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong possibleDuplicates = new AtomicLong();
+    private final Map<String, AtomicLong> rejectionsByColumn = new ConcurrentHashMap<>();
+    private final List<FileContentReader> readers = new CopyOnWriteArrayList<>();
+    private final Sinks.Empty<Void> completion = Sinks.empty();
+
+    private volatile Disposable subscription;
+    private volatile UploadStatus status = UploadStatus.IN_PROGRESS;
+    private volatile Instant completedAt;
+    private volatile String errorMessage;
+    private volatile Long bytesConsumed;
+
+    private long lastSampleTime = System.currentTimeMillis();
+    private long lastSampleRows = 0L;
+    private long rowsPerSecond = 0L;
+
+    public ImportJob(String fileName, String collection) {
+        this(fileName, collection, List.of());
+    }
+
+    /**
+     * @param columnValidations: rows failing these are written to the collection's rejects collection instead
+     */
+    public ImportJob(String fileName, String collection, List<ColumnValidation> columnValidations) {
+        this(fileName, collection, columnValidations, List.of());
+    }
+
+    /**
+     * @param uniqueKeyColumns: columns forming the row key, later rows repeating a key are rejected as duplicates
+     */
+    public ImportJob(String fileName, String collection, List<ColumnValidation> columnValidations, List<String> uniqueKeyColumns) {
+        this(fileName, collection, columnValidations, uniqueKeyColumns, ColumnProjection.builder().build());
+    }
+
+    /**
+     * @param columnProjection: columns read from the file and their field names, validations and keys use the field names
+     */
+    public ImportJob(
+            String fileName, String collection, List<ColumnValidation> columnValidations, List<String> uniqueKeyColumns,
+            ColumnProjection columnProjection
+    ) {
+        this.fileName = fileName;
+        this.collection = collection;
+        this.columnValidations = Objects.requireNonNullElse(columnValidations, List.of());
+        this.uniqueKeyColumns = Objects.requireNonNullElse(uniqueKeyColumns, List.of());
+        this.columnProjection = Objects.requireNonNullElse(columnProjection, ColumnProjection.builder().build());
+    }
+
+    public void addReader(FileContentReader reader) {
+        readers.add(reader);
+    }
+
+    public void recordRejection(FileRow fileRow) {
+
+        rowsRejected.incrementAndGet();
+
+        for (ValidationError validationError : fileRow.getValidationErrors()) {
+            rejectionsByColumn.computeIfAbsent(validationError.getColumn(), column -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Rows whose key hit the bloom filter, they are written and can be confirmed with a duplicate key scan of the collection
+     */
+    public void recordPossibleDuplicate(FileRow fileRow) {
+
+        possibleDuplicates.incrementAndGet();
+    }
+
+    public Map<String, Long> getRejectionCounts() {
+
+        Map<String, Long> rejectionCounts = new TreeMap<>();
+        rejectionsByColumn.forEach((column, count) -> rejectionCounts.put(column, count.get()));
+        return rejectionCounts;
+    }
+
+    /**
+     * Only the first of success, failure and cancellation takes effect, whichever thread reports it
+     *
+     * @return whether this call completed the job
+     */
+    public synchronized Boolean complete(UploadStatus status, String errorMessage) {
+
+        if (!Objects.equals(this.status, UploadStatus.IN_PROGRESS)) {
+            return Boolean.FALSE;
+        }
+
+        this.status = status;
+        this.errorMessage = errorMessage;
+        this.completedAt = Instant.now();
+        this.bytesConsumed = getBytesConsumed();
+        // finished jobs are retained for status calls, they must not keep their readers and workbooks alive
+        readers.clear();
+        completion.tryEmitEmpty();
+
+        return Boolean.TRUE;
+    }
+
+    /**
+     * A job cancelled before its subscription is set has the subscription disposed as soon as it is set
+     */
+    public synchronized void setSubscription(Disposable subscription) {
+
+        this.subscription = subscription;
+
+        if (Objects.equals(status, UploadStatus.CANCELLED)) {
+            subscription.dispose();
+        }
+    }
+
+    public void cancel() {
+
+        if (complete(UploadStatus.CANCELLED, null)) {
+            Disposable subscription = this.subscription;
+            if (Objects.nonNull(subscription)) {
+                subscription.dispose();
+            }
+        }
+    }
+
+    /**
+     * @return completes once the job has succeeded, failed or been cancelled
+     */
+    public Mono<Void> awaitCompletion() {
+        return completion.asMono();
+    }
+
+    public Boolean isCompleted() {
+        return !Objects.equals(status, UploadStatus.IN_PROGRESS);
+    }
+
+    public Long getBytesConsumed() {
+
+        if (Objects.nonNull(bytesConsumed)) {
+            return bytesConsumed;
+        }
+
+        return readers
+                .stream()
+                .mapToLong(FileContentReader::getBytesRead)
+                .sum();
+    }
+
+    /**
+     * @return rows written per second over the last sampling window, or the average once the job has finished
+     */
+    public synchronized Long getRowsPerSecond() {
+
+        long written = rowsWritten.get();
+
+        if (isCompleted()) {
+            long elapsedMillis = Math.max(Duration.between(startedAt, completedAt).toMillis(), 1L);
+            return written * 1000L / elapsedMillis;
+        }
+
+        long now = System.currentTimeMillis();
+        long elapsedMillis = now - lastSampleTime;
+
+        if (elapsedMillis >= THROUGHPUT_SAMPLE_MILLIS) {
+            rowsPerSecond = (written - lastSampleRows) * 1000L / elapsedMillis;
+            lastSampleTime = now;
+            lastSampleRows = written;
+        }
+
+        return rowsPerSecond;
+    }
+
+    public FileUploadStatus toFileUploadStatus() {
+
+        return FileUploadStatus.builder()
+                .jobId(jobId)
+                .fileId(fileName)
+                .collection(collection)
+                .uploadStatus(status)
+                .rowsRead(rowsRead.get())
+                .rowsWritten(rowsWritten.get())
+                .rowsRejected(rowsRejected.get())
+                .rejectionsByColumn(getRejectionCounts())
+                .possibleDuplicates(possibleDuplicates.get())
+                .bytesConsumed(getBytesConsumed())
+                .rowsPerSecond(getRowsPerSecond())
+                .startedAt(startedAt)
+                .completedAt(completedAt)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.github.srilaxmi.filereader.service;
+
+import com.github.srilaxmi.filereader.constants.SheetTarget;
+import com.github.srilaxmi.filereader.constants.UploadStatus;
+import com.github.srilaxmi.filereader.dto.ColumnProjection;
+import com.github.srilaxmi.filereader.dto.ColumnValidation;
+import com.github.srilaxmi.filereader.dto.FileUploadStatus;
+import com.github.srilaxmi.filereader.metrics.IngestionMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class ImportJobService {
+
+    private final Map<String, ImportJob> importJobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    private BatchOperationService batchOperationService;
+
+    @Autowired
+    private IngestionMetrics ingestionMetrics;
+
+    @Value("${filereader.jobs.retention-minutes:1440}")
+    private Long retentionMinutes;
+
+    @PostConstruct
+    public void registerMetrics() {
+
+        ingestionMetrics.registerInFlightImports(() -> importJobs.values()
+                .stream()
+                .filter(importJob -> !importJob.isCompleted())
+                .count());
+    }
+
+    public ImportJob startImport(String path, String sheetName, String collection) {
+
+        return startImport(path, sheetName, collection, List.of(), List.of(), ColumnProjection.builder().build(), Boolean.TRUE);
+    }
+
+    /**
+     * @param columnValidations: rows failing these are quarantined in the collection's rejects collection
+     * @param uniqueKeyColumns: rows repeating the key of an earlier row are quarantined as duplicates
+     * @param columnProjection: columns read from the file and the field names they are stored under
+     * @param resume: continue a failed or cancelled import of the same file, else import it from the first row
+     */
+    public ImportJob startImport(
+            String path, String sheetName, String collection, List<ColumnValidation> columnValidations,
+            List<String> uniqueKeyColumns, ColumnProjection columnProjection, Boolean resume
+    ) {
+
+        return startJob(path, collection, columnValidations, uniqueKeyColumns, columnProjection, importJob -> {
+            try {
+                return batchOperationService.saveFileDataToCollection(path, sheetName, collection, importJob, resume);
+            } catch (IOException e) {
+                return Mono.error(e);
+            }
+        });
+    }
+
+    /**
+     * Imports several sheets of a workbook in a single job, the workbook is parsed once for all of them
+     */
+    public ImportJob startWorkbookImport(
+            String path, List<String> sheetNames, String collection, SheetTarget sheetTarget,
+            List<ColumnValidation> columnValidations, List<String> uniqueKeyColumns, ColumnProjection columnProjection
+    ) {
+
+        return startJob(path, collection, columnValidations, uniqueKeyColumns, columnProjection, importJob -> batchOperationService
+                .saveWorkbookSheetsToCollections(path, sheetNames, collection, sheetTarget, importJob));
+    }
+
+    /**
+     * Imports a CSV or TSV upload while it is still arriving, the upload has to stay open until the job completes
+     */
+    public ImportJob startStreamingImport(
+            String fileName, Flux<DataBuffer> content, String collection,
+            List<ColumnValidation> columnValidations, List<String> uniqueKeyColumns, ColumnProjection columnProjection
+    ) {
+
+        return startJob(fileName, collection, columnValidations, uniqueKeyColumns, columnProjection, importJob -> batchOperationService
+                .saveStreamToCollection(fileName, content, collection, importJob));
+    }
+
+    private ImportJob startJob(
+            String path, String collection, List<ColumnValidation> columnValidations, List<String> uniqueKeyColumns,
+            ColumnProjection columnProjection, Function<ImportJob, Mono<Boolean>> importFunction
+    ) {
+
+        evictExpiredJobs();
+
+        ImportJob importJob = new ImportJob(new File(path).getName(), collection, columnValidations, uniqueKeyColumns, columnProjection);
+        importJobs.put(importJob.getJobId(), importJob);
+
+        log.info("{} :: Starting import job :: {} for file :: {}", collection, importJob.getJobId(), path);
+
+        Disposable subscription = Mono.defer(() -> importFunction.apply(importJob))
+                .doOnCancel(() -> {
+                    log.info("{} :: Import job cancelled :: {}", collection, importJob.getJobId());
+                    importJob.complete(UploadStatus.CANCELLED, null);
+                })
+                .subscribe(
+                        uploaded -> importJob.complete(UploadStatus.SUCCESS, null),
+                        error -> {
+                            log.error("{} :: Import job failed :: {}", collection, importJob.getJobId(), error);
+                            importJob.complete(UploadStatus.FAILURE, error.getMessage());
+                        }
+                );
+
+        importJob.setSubscription(subscription);
+        return importJob;
+    }
+
+    public Flux<FileUploadStatus> getAllJobStatuses() {
+
+        return Flux.fromIterable(importJobs.values())
+                .map(ImportJob::toFileUploadStatus);
+    }
+
+    public Mono<FileUploadStatus> getJobStatus(String jobId) {
+
+        return getImportJob(jobId)
+                .map(ImportJob::toFileUploadStatus);
+    }
+
+    public Mono<FileUploadStatus> cancelJob(String jobId) {
+
+        return getImportJob(jobId)
+                .map(importJob -> {
+                    importJob.cancel();
+                    return importJob.toFileUploadStatus();
+                });
+    }
+
+    private Mono<ImportJob> getImportJob(String jobId) {
+
+        return Mono.justOrEmpty(importJobs.get(jobId))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found : " + jobId)));
+    }
+
+    private void evictExpiredJobs() {
+
+        Instant expiry = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        importJobs.values().removeIf(importJob -> importJob.isCompleted() && importJob.getCompletedAt().isBefore(expiry));
+    }
+
+}
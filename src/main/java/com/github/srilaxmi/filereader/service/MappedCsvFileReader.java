@@ -0,0 +1,567 @@
+package com.github.srilaxmi.filereader.service;
+
+import com.github.srilaxmi.filereader.dto.ColumnProjection;
+import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.dto.Pair;
+import com.github.srilaxmi.filereader.util.CsvRowIndex;
+import com.github.srilaxmi.filereader.util.FileParseUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads CSV files through memory mapped segments. The file is split on record boundaries, segments are tokenized
+ * in parallel straight from the mapped bytes and only the fields that end up in the document are decoded.
+ * <p>
+ * Quoting follows RFC 4180, so unlike opencsv a backslash is an ordinary character. Records end at '\n', '\r'
+ * or "\r\n", fields beyond the headers are ignored and rows whose values are all blank are skipped.
+ */
+@Component
+@Scope("prototype")
+@Slf4j
+public class MappedCsvFileReader implements FileContentReader {
+
+    private static final Integer DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final Long DEFAULT_SEGMENT_BYTES = 16L * 1024 * 1024;
+    private static final long SCAN_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ',';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    // record boundaries differ from opencsv's, so rows are indexed apart from CSVFileReader's
+    private static final String ROW_INDEX_PARSER = "rfc4180,";
+
+    private final Scheduler readScheduler;
+    private final Integer parallelism;
+    private final Long segmentBytes;
+    private final Charset charset = Charset.defaultCharset();
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private FileChannel channel;
+    private String filePath;
+    private long fileSize;
+    private long nextOffset;
+    private List<String> headers;
+
+    // field name by column index, null for columns that are never decoded
+    private String[] fieldNames;
+
+    private MappedByteBuffer scanWindow;
+    private long scanWindowStart;
+    private long scanWindowEnd;
+
+    // whether every value of the last record passed by findRecordEnd is blank
+    private boolean lastRecordBlank;
+
+    public MappedCsvFileReader() {
+        this(Schedulers.boundedElastic(), DEFAULT_PARALLELISM, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * @param readScheduler: scheduler on which record boundaries are located
+     * @param parallelism: number of segments tokenized concurrently
+     * @param segmentBytes: approximate size of a segment, segments always end on a record boundary
+     */
+    public MappedCsvFileReader(Scheduler readScheduler, Integer parallelism, Long segmentBytes) {
+        this.readScheduler = readScheduler;
+        this.parallelism = parallelism;
+        this.segmentBytes = segmentBytes;
+    }
+
+    @Override
+    public Mono<Void> initialize(String filePath, String sheetName) {
+
+        try {
+
+            this.filePath = filePath;
+            this.channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+            this.fileSize = channel.size();
+            this.headers = extractHeaders();
+            this.fieldNames = ColumnProjection.builder().build().getFieldNames(headers);
+
+            log.info("{} :: Initialized memory mapped csv reader with {} headers", filePath, headers.size());
+            return Mono.empty();
+
+        } catch (IOException | RuntimeException e) {
+            log.error("ERROR while generating reader: ", e);
+            close();
+            return Mono.error(e);
+        }
+    }
+
+    @Override
+    public Flux<String> getHeaders() {
+
+        return Flux.fromIterable(headers);
+    }
+
+    @Override
+    public Flux<FileRow> getAllRows() {
+
+        return Flux.<Pair<Long, Long>>generate(sink -> {
+                    try {
+                        if (nextOffset >= fileSize) {
+                            sink.complete();
+                            return;
+                        }
+                        long segmentStart = nextOffset;
+                        long segmentEnd = segmentStart + segmentBytes >= fileSize ?
+                                fileSize :
+                                findRecordEnd(segmentStart, segmentStart + segmentBytes);
+                        nextOffset = segmentEnd;
+                        sink.next(new Pair<>(segmentStart, segmentEnd));
+                    } catch (IOException | RuntimeException e) {
+                        sink.error(e);
+                    }
+                })
+                .subscribeOn(readScheduler)
+                .flatMapSequential(segment -> Mono.fromCallable(() -> tokenize(segment.getFirst(), segment.getSecond()))
+                        .subscribeOn(Schedulers.parallel()), parallelism)
+                .flatMapIterable(fileRows -> fileRows)
+                .doFinally(signalType -> {
+                    if (signalType == SignalType.ON_ERROR) {
+                        log.error("doOnFinally: Stream terminated with an error");
+                    } else {
+                        log.info("doOnFinally: Stream terminated normally");
+                    }
+                    close();
+                });
+    }
+
+    @Override
+    public Mono<FileRow> getNextRow(Integer rowNumber) {
+
+        if (Objects.nonNull(rowNumber)) {
+            return getRows(rowNumber.longValue(), 1L).next();
+        }
+
+        return Mono.fromCallable(() -> {
+            if (nextOffset >= fileSize) {
+                return null;
+            }
+            long recordEnd = findRecordEnd(nextOffset, nextOffset + 1);
+            List<FileRow> fileRows = tokenize(nextOffset, recordEnd);
+            nextOffset = recordEnd;
+            return fileRows.isEmpty() ? null : fileRows.get(0);
+        });
+    }
+
+    @Override
+    public Mono<Void> skipRows(Long rowCount, Long sourceOffset) {
+
+        return Mono.fromCallable(() -> {
+
+            if (Objects.nonNull(sourceOffset)) {
+                if (sourceOffset > fileSize) {
+                    throw new IOException("Offset " + sourceOffset + " is beyond the end of file " + filePath);
+                }
+                nextOffset = sourceOffset;
+                log.info("{} :: Resuming csv read from byte offset :: {}", filePath, sourceOffset);
+                return nextOffset;
+            }
+
+            long skipped = 0;
+            while (skipped < rowCount && nextOffset < fileSize) {
+                nextOffset = findRecordEnd(nextOffset, nextOffset + 1);
+                if (!lastRecordBlank) {
+                    skipped++;
+                }
+            }
+            return nextOffset;
+        }).then();
+    }
+
+    /**
+     * Seeks to the nearest row of the file's CsvRowIndex, passes the rows after it on the raw bytes and maps only
+     * the records that are returned
+     */
+    @Override
+    public Flux<FileRow> getRows(Long offset, Long limit) {
+
+        return Mono.fromCallable(() -> {
+                    seekToRow(offset);
+                    return readRecords(limit);
+                })
+                .subscribeOn(readScheduler)
+                .doFinally(signalType -> close())
+                .flatMapIterable(fileRows -> fileRows);
+    }
+
+    @Override
+    public void setColumnProjection(ColumnProjection columnProjection) {
+
+        this.fieldNames = columnProjection.getFieldNames(headers);
+    }
+
+    @Override
+    public Long getBytesRead() {
+
+        return bytesRead.get();
+    }
+
+    private void seekToRow(Long rowNumber) throws IOException {
+
+        CsvRowIndex rowIndex = CsvRowIndex.forFile(filePath, ROW_INDEX_PARSER);
+        rowIndex.record(0L, nextOffset);
+
+        Map.Entry<Long, Long> indexedRow = rowIndex.floor(rowNumber);
+        long skipped = indexedRow.getKey();
+        nextOffset = indexedRow.getValue();
+
+        while (skipped < rowNumber && nextOffset < fileSize) {
+            nextOffset = findRecordEnd(nextOffset, nextOffset + 1);
+            if (!lastRecordBlank) {
+                skipped++;
+                rowIndex.record(skipped, nextOffset);
+            }
+        }
+
+        log.info("{} :: Positioned at row {} from indexed row {}", filePath, rowNumber, indexedRow.getKey());
+    }
+
+    /**
+     * @return the next rowCount rows, tokenized from a single mapping of their records
+     */
+    private List<FileRow> readRecords(Long rowCount) throws IOException {
+
+        long start = nextOffset;
+        long found = 0;
+
+        while (found < rowCount && nextOffset < fileSize) {
+            nextOffset = findRecordEnd(nextOffset, nextOffset + 1);
+            if (!lastRecordBlank) {
+                found++;
+            }
+        }
+
+        return nextOffset > start ? tokenize(start, nextOffset) : List.of();
+    }
+
+    private List<String> extractHeaders() throws IOException {
+
+        if (fileSize == 0) {
+            return List.of();
+        }
+
+        long headerEnd = findRecordEnd(0, 1);
+        this.nextOffset = headerEnd;
+
+        SegmentTokenizer tokenizer = new SegmentTokenizer(map(0, headerEnd), Integer.MAX_VALUE);
+        List<String> headerValues = new ArrayList<>();
+        tokenizer.readRecord(headerValues);
+
+        List<String> contentColumns = new ArrayList<>(headerValues.size());
+        for (String header : headerValues) {
+            contentColumns.add(FileParseUtil.replaceNewlinesAndStrip(header));
+        }
+        return contentColumns;
+    }
+
+    private List<FileRow> tokenize(long segmentStart, long segmentEnd) throws IOException {
+
+        SegmentTokenizer tokenizer = new SegmentTokenizer(map(segmentStart, segmentEnd), headers.size());
+        List<FileRow> fileRows = new ArrayList<>();
+
+        while (tokenizer.hasRemaining()) {
+            Document document = tokenizer.readDocument();
+            if (Objects.nonNull(document)) {
+                fileRows.add(FileRow.builder().row(document).sourceOffset(segmentStart + tokenizer.position).build());
+            }
+        }
+
+        bytesRead.accumulateAndGet(segmentEnd, Math::max);
+        return fileRows;
+    }
+
+    private MappedByteBuffer map(long start, long end) throws IOException {
+
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("CSV record starting at byte " + start + " is larger than 2GB");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+
+    /**
+     * Runs the same state machine as the tokenizer over the raw bytes, without decoding anything.
+     * Sets lastRecordBlank the way the tokenizer decides a record is blank.
+     *
+     * @param from: start of a record
+     * @return the end of the first record that ends at or after minEnd, or the end of the file
+     */
+    private long findRecordEnd(long from, long minEnd) throws IOException {
+
+        int state = FIELD_START;
+        long position = from;
+        boolean blank = true;
+
+        while (position < fileSize) {
+
+            byte current = byteAt(position++);
+
+            if (state == QUOTED) {
+                if (current == QUOTE) {
+                    state = QUOTE_IN_QUOTED;
+                } else if ((current & 0xFF) > ' ') {
+                    blank = false;
+                }
+                continue;
+            }
+
+            if (current == QUOTE && (state == FIELD_START || state == QUOTE_IN_QUOTED)) {
+                if (state == QUOTE_IN_QUOTED) {
+                    blank = false;
+                }
+                state = QUOTED;
+            } else if (current == SEPARATOR) {
+                state = FIELD_START;
+            } else if (current == LF || current == CR) {
+                if (current == CR && position < fileSize && byteAt(position) == LF) {
+                    position++;
+                }
+                if (position >= minEnd) {
+                    lastRecordBlank = blank;
+                    return position;
+                }
+                state = FIELD_START;
+                blank = true;
+            } else {
+                if ((current & 0xFF) > ' ') {
+                    blank = false;
+                }
+                state = UNQUOTED;
+            }
+        }
+
+        lastRecordBlank = blank;
+        return fileSize;
+    }
+
+    private byte byteAt(long position) throws IOException {
+
+        if (Objects.isNull(scanWindow) || position < scanWindowStart || position >= scanWindowEnd) {
+            scanWindowStart = position;
+            scanWindowEnd = Math.min(fileSize, position + SCAN_WINDOW_BYTES);
+            scanWindow = channel.map(FileChannel.MapMode.READ_ONLY, scanWindowStart, scanWindowEnd - scanWindowStart);
+        }
+
+        return scanWindow.get((int) (position - scanWindowStart));
+    }
+
+    private void close() {
+
+        if (Objects.nonNull(this.channel)) {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                log.warn("ERROR while closing csv file channel");
+            }
+        }
+        this.scanWindow = null;
+    }
+
+    /**
+     * Tokenizes the records of one mapped segment. Field positions are kept as offsets into the buffer
+     * and a field is only copied out and decoded when its column is part of the document.
+     */
+    private final class SegmentTokenizer {
+
+        private final MappedByteBuffer buffer;
+        private final int limit;
+        private final int maxFields;
+        private final int[] fieldStarts;
+        private final int[] fieldEnds;
+
+        private byte[] scratch = new byte[256];
+        private int position;
+        private int fieldCount;
+        private boolean blank;
+
+        private SegmentTokenizer(MappedByteBuffer buffer, int maxFields) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+            this.maxFields = maxFields;
+            int initialFields = Math.min(maxFields, 64);
+            this.fieldStarts = new int[maxFields == Integer.MAX_VALUE ? initialFields : maxFields];
+            this.fieldEnds = new int[fieldStarts.length];
+        }
+
+        private boolean hasRemaining() {
+            return position < limit;
+        }
+
+        /**
+         * @return the next record as a document, or null when every value of the record is blank
+         */
+        private Document readDocument() {
+
+            scanRecord();
+
+            if (blank) {
+                return null;
+            }
+
+            Document document = new Document();
+            int columns = Math.min(fieldCount, headers.size());
+
+            for (int i = 0; i < columns; i++) {
+                String fieldName = fieldNames[i];
+                if (Objects.nonNull(fieldName)) {
+                    document.put(fieldName, decode(fieldStarts[i], fieldEnds[i]).strip());
+                }
+            }
+
+            return document;
+        }
+
+        private void readRecord(List<String> values) {
+
+            int[] starts = fieldStarts;
+            int[] ends = fieldEnds;
+            int recordStart = position;
+
+            scanRecord();
+
+            if (fieldCount <= starts.length) {
+                for (int i = 0; i < fieldCount; i++) {
+                    values.add(decode(starts[i], ends[i]));
+                }
+                return;
+            }
+
+            // more header fields than the initial capacity, rescan with all field positions collected
+            position = recordStart;
+            List<int[]> bounds = new ArrayList<>();
+            scanRecord(bounds);
+            for (int[] bound : bounds) {
+                values.add(decode(bound[0], bound[1]));
+            }
+        }
+
+        private void scanRecord() {
+            scanRecord(null);
+        }
+
+        private void scanRecord(List<int[]> allBounds) {
+
+            int state = FIELD_START;
+            int fieldStart = position;
+            fieldCount = 0;
+            blank = true;
+
+            while (position < limit) {
+
+                byte current = buffer.get(position++);
+
+                if (state == QUOTED) {
+                    if (current == QUOTE) {
+                        state = QUOTE_IN_QUOTED;
+                    } else if ((current & 0xFF) > ' ') {
+                        blank = false;
+                    }
+                    continue;
+                }
+
+                if (current == QUOTE && (state == FIELD_START || state == QUOTE_IN_QUOTED)) {
+                    if (state == QUOTE_IN_QUOTED) {
+                        blank = false;
+                    }
+                    state = QUOTED;
+                } else if (current == SEPARATOR) {
+                    endField(fieldStart, position - 1, allBounds);
+                    fieldStart = position;
+                    state = FIELD_START;
+                } else if (current == LF || current == CR) {
+                    endField(fieldStart, position - 1, allBounds);
+                    if (current == CR && position < limit && buffer.get(position) == LF) {
+                        position++;
+                    }
+                    return;
+                } else {
+                    if ((current & 0xFF) > ' ') {
+                        blank = false;
+                    }
+                    state = UNQUOTED;
+                }
+            }
+
+            endField(fieldStart, position, allBounds);
+        }
+
+        private void endField(int start, int end, List<int[]> allBounds) {
+
+            if (Objects.nonNull(allBounds)) {
+                allBounds.add(new int[]{start, end});
+            } else if (fieldCount < fieldStarts.length) {
+                fieldStarts[fieldCount] = start;
+                fieldEnds[fieldCount] = end;
+            }
+            fieldCount++;
+        }
+
+        /**
+         * Copies a field out of the mapped buffer, dropping the enclosing quotes and unescaping doubled quotes
+         */
+        private String decode(int start, int end) {
+
+            if (scratch.length < end - start) {
+                scratch = Arrays.copyOf(scratch, Math.max(end - start, scratch.length * 2));
+            }
+
+            int length = 0;
+            int index = start;
+
+            if (index < end && buffer.get(index) == QUOTE) {
+                boolean inQuotes = true;
+                index++;
+
+                while (index < end) {
+                    byte current = buffer.get(index++);
+                    if (inQuotes && current == QUOTE) {
+                        if (index < end && buffer.get(index) == QUOTE) {
+                            scratch[length++] = QUOTE;
+                            index++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        scratch[length++] = current;
+                    }
+                }
+            } else {
+                while (index < end) {
+                    scratch[length++] = buffer.get(index++);
+                }
+            }
+
+            return new String(scratch, 0, length, charset);
+        }
+
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.github.srilaxmi.filereader.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A workbook that has been parsed once and hands out readers for its sheets. Sheet readers only read from
+ * the shared workbook and never close it, so several sheets can be read concurrently until close is called.
+ */
+@AllArgsConstructor
+public class SharedWorkbook {
+
+    @Getter
+    private final List<String> sheetNames;
+
+    private final Supplier<FileContentReader> sheetReaderSupplier;
+
+    private final Runnable closeAction;
+
+    /**
+     * @return a reader bound to this workbook, initialize it with the sheet it should read
+     */
+    public FileContentReader createSheetReader() {
+        return sheetReaderSupplier.get();
+    }
+
+    public void close() {
+        closeAction.run();
+    }
+
+}
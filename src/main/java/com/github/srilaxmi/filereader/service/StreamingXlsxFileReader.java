@@ -0,0 +1,462 @@
+package com.github.srilaxmi.filereader.service;
+
+import com.github.srilaxmi.filereader.dto.ColumnProjection;
+import com.github.srilaxmi.filereader.dto.FileRow;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.bson.Document;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.github.srilaxmi.filereader.util.FileParseUtil.replaceNewlinesAndStrip;
+
+/**
+ * Reads XLSX sheets through POI's event model. Rows are pulled from the sheet XML one at a time,
+ * so only the shared strings and styles tables stay on the heap irrespective of the sheet size.
+ */
+@Component
+@Scope("prototype")
+@Slf4j
+public class StreamingXlsxFileReader implements FileContentReader {
+
+    private static final String ROW_ELEMENT = "row";
+    private static final String CELL_ELEMENT = "c";
+    private static final String VALUE_ELEMENT = "v";
+    private static final String INLINE_STRING_ELEMENT = "is";
+    private static final String TEXT_ELEMENT = "t";
+    private static final String SHEET_DATA_ELEMENT = "sheetData";
+
+    private final DataFormatter formatter = new DataFormatter();
+    private XSSFReader sharedXssfReader;
+
+    private OPCPackage opcPackage;
+    private SharedStrings sharedStrings;
+    private StylesTable stylesTable;
+    private CountingInputStream sheetInputStream;
+    private XMLStreamReader sheetReader;
+    private List<String> headers;
+    private Long bytesRead = 0L;
+
+    // field name by column index, null for columns left out of the documents
+    private String[] fieldNames;
+
+    public StreamingXlsxFileReader() {
+        this.sharedXssfReader = null;
+    }
+
+    private StreamingXlsxFileReader(XSSFReader sharedXssfReader, SharedStrings sharedStrings, StylesTable stylesTable) {
+        this.sharedXssfReader = sharedXssfReader;
+        this.sharedStrings = sharedStrings;
+        this.stylesTable = stylesTable;
+    }
+
+    /**
+     * Opens the package and loads the shared strings and styles once, each sheet reader then only streams its own sheet XML
+     */
+    public static SharedWorkbook openWorkbook(String filePath) throws Exception {
+
+        OPCPackage opcPackage = OPCPackage.open(filePath, PackageAccess.READ);
+
+        try {
+
+            XSSFReader xssfReader = new XSSFReader(opcPackage);
+            SharedStrings sharedStrings = new ReadOnlySharedStringsTable(opcPackage, false);
+            StylesTable stylesTable = xssfReader.getStylesTable();
+
+            List<String> sheetNames = new ArrayList<>();
+            XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheetIterator.hasNext()) {
+                closeQuietly(sheetIterator.next());
+                sheetNames.add(sheetIterator.getSheetName());
+            }
+
+            return new SharedWorkbook(
+                    sheetNames,
+                    () -> new StreamingXlsxFileReader(xssfReader, sharedStrings, stylesTable),
+                    opcPackage::revert
+            );
+
+        } catch (Exception e) {
+            opcPackage.revert();
+            throw e;
+        }
+    }
+
+    @Override
+    public Mono<Void> initialize(String filePath, String sheetName) {
+
+        try {
+
+            if (Objects.nonNull(sharedXssfReader)) {
+                // the package parts are shared between sheet readers, only opening a sheet stream touches them
+                synchronized (sharedXssfReader) {
+                    this.sheetInputStream = new CountingInputStream(getSheetInputStream(sharedXssfReader, sheetName));
+                }
+            } else {
+                this.opcPackage = OPCPackage.open(filePath, PackageAccess.READ);
+
+                XSSFReader xssfReader = new XSSFReader(opcPackage);
+                this.sharedStrings = new ReadOnlySharedStringsTable(opcPackage, false);
+                this.stylesTable = xssfReader.getStylesTable();
+                this.sheetInputStream = new CountingInputStream(getSheetInputStream(xssfReader, sheetName));
+            }
+            this.sheetReader = XMLHelper.newXMLInputFactory().createXMLStreamReader(sheetInputStream);
+            this.headers = extractHeaders();
+            this.fieldNames = ColumnProjection.builder().build().getFieldNames(headers);
+
+            log.info("{} :: Initialized streaming xlsx reader with {} headers", filePath, headers.size());
+            return Mono.empty();
+
+        } catch (Exception e) {
+            log.error("ERROR while fetching worksheet: ", e);
+            close();
+            return Mono.error(e);
+        }
+    }
+
+    @Override
+    public Flux<String> getHeaders() {
+
+        return Flux.fromIterable(headers);
+    }
+
+    @Override
+    public Flux<FileRow> getAllRows() {
+
+        return Flux.<FileRow>generate(sink -> {
+                    try {
+                        FileRow fileRow = readNextFileRow();
+                        if (Objects.isNull(fileRow)) {
+                            sink.complete();
+                        } else {
+                            sink.next(fileRow);
+                        }
+                    } catch (XMLStreamException e) {
+                        sink.error(e);
+                    }
+                })
+                .doFinally(signalType -> {
+                    if (signalType == SignalType.ON_ERROR) {
+                        log.error("doOnFinally: Stream terminated with an error");
+                    } else {
+                        log.info("doOnFinally: Stream terminated normally");
+                    }
+                    close();
+                });
+    }
+
+    @Override
+    public Mono<FileRow> getNextRow(Integer rowNumber) {
+
+        if (Objects.nonNull(rowNumber)) {
+            return getRows(rowNumber.longValue(), 1L).next();
+        }
+
+        return Mono.fromCallable(this::readNextFileRow);
+    }
+
+    @Override
+    public Mono<Void> skipRows(Long rowCount, Long sourceOffset) {
+
+        return Mono.fromCallable(() -> {
+            long skipped = 0;
+            List<String> values;
+
+            while (skipped < rowCount && Objects.nonNull(values = readNextRow())) {
+                if (!isRowEmpty(values)) {
+                    skipped++;
+                }
+            }
+            return skipped;
+        }).then();
+    }
+
+    /**
+     * Cells outside the projection are still formatted, row emptiness is decided on formatted values
+     */
+    @Override
+    public void setColumnProjection(ColumnProjection columnProjection) {
+
+        this.fieldNames = columnProjection.getFieldNames(headers);
+    }
+
+    @Override
+    public Long getBytesRead() {
+
+        return Objects.nonNull(sheetInputStream) ? sheetInputStream.getByteCount() : bytesRead;
+    }
+
+    private InputStream getSheetInputStream(XSSFReader xssfReader, String sheetName) throws Exception {
+
+        XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        InputStream firstSheet = null;
+
+        while (sheetIterator.hasNext()) {
+            InputStream sheet = sheetIterator.next();
+
+            if (Objects.nonNull(sheetName) && sheetName.equals(sheetIterator.getSheetName())) {
+                closeQuietly(firstSheet);
+                return sheet;
+            }
+
+            if (Objects.isNull(firstSheet)) {
+                firstSheet = sheet;
+            } else {
+                closeQuietly(sheet);
+            }
+        }
+
+        if (Objects.isNull(firstSheet)) {
+            throw new IllegalStateException("No worksheet found in workbook");
+        }
+
+        return firstSheet;
+    }
+
+    private List<String> extractHeaders() throws XMLStreamException {
+
+        List<String> headerRow = readNextRow();
+        List<String> contentColumns = new ArrayList<>();
+
+        if (Objects.nonNull(headerRow)) {
+            for (String header : headerRow) {
+                contentColumns.add(Objects.isNull(header) ? "" : replaceNewlinesAndStrip(header));
+            }
+        }
+
+        return contentColumns;
+    }
+
+    private FileRow readNextFileRow() throws XMLStreamException {
+
+        List<String> values;
+
+        while (Objects.nonNull(values = readNextRow())) {
+            if (!isRowEmpty(values)) {
+                return FileRow.builder().row(generateDocument(values)).build();
+            }
+        }
+
+        return null;
+    }
+
+    private Document generateDocument(List<String> values) {
+
+        Document rowData = new Document();
+
+        for (int j = 0; j < fieldNames.length; j++) {
+            String fieldName = fieldNames[j];
+
+            if (Objects.nonNull(fieldName)) {
+                String value = j < values.size() ? values.get(j) : null;
+                rowData.put(fieldName, Objects.isNull(value) ? "" : value.strip());
+            }
+        }
+
+        return rowData;
+    }
+
+    private Boolean isRowEmpty(List<String> values) {
+
+        for (String value : values) {
+            if (StringUtils.isNotBlank(value)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return formatted cell values of the next row indexed by column, or null once the sheet data is exhausted
+     */
+    private List<String> readNextRow() throws XMLStreamException {
+
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT && ROW_ELEMENT.equals(sheetReader.getLocalName())) {
+                return readRowCells();
+            } else if (event == XMLStreamConstants.END_ELEMENT && SHEET_DATA_ELEMENT.equals(sheetReader.getLocalName())) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    private List<String> readRowCells() throws XMLStreamException {
+
+        List<String> values = new ArrayList<>(headers == null ? 16 : headers.size());
+        int columnIndex = -1;
+
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT && CELL_ELEMENT.equals(sheetReader.getLocalName())) {
+
+                String reference = sheetReader.getAttributeValue(null, "r");
+                columnIndex = Objects.nonNull(reference) ? getColumnIndex(reference) : columnIndex + 1;
+
+                String cellType = sheetReader.getAttributeValue(null, "t");
+                String styleIndex = sheetReader.getAttributeValue(null, "s");
+                String value = formatCellValue(cellType, styleIndex, readCellContent());
+
+                while (values.size() <= columnIndex) {
+                    values.add(null);
+                }
+                values.set(columnIndex, value);
+
+            } else if (event == XMLStreamConstants.END_ELEMENT && ROW_ELEMENT.equals(sheetReader.getLocalName())) {
+                break;
+            }
+        }
+
+        return values;
+    }
+
+    private String readCellContent() throws XMLStreamException {
+
+        String content = null;
+        StringBuilder inlineString = null;
+
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String element = sheetReader.getLocalName();
+                if (VALUE_ELEMENT.equals(element)) {
+                    content = sheetReader.getElementText();
+                } else if (INLINE_STRING_ELEMENT.equals(element)) {
+                    inlineString = new StringBuilder();
+                } else if (TEXT_ELEMENT.equals(element) && Objects.nonNull(inlineString)) {
+                    inlineString.append(sheetReader.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && CELL_ELEMENT.equals(sheetReader.getLocalName())) {
+                break;
+            }
+        }
+
+        return Objects.nonNull(inlineString) ? inlineString.toString() : content;
+    }
+
+    private String formatCellValue(String cellType, String styleIndex, String content) {
+
+        if (Objects.isNull(content)) {
+            return null;
+        }
+
+        if (Objects.isNull(cellType) || "n".equals(cellType)) {
+            return formatNumericValue(styleIndex, content);
+        }
+
+        switch (cellType) {
+            case "s":
+                return sharedStrings.getItemAt(Integer.parseInt(content)).getString();
+            case "b":
+                return "0".equals(content) ? "FALSE" : "TRUE";
+            default:
+                return content;
+        }
+    }
+
+    private String formatNumericValue(String styleIndex, String content) {
+
+        int formatIndex = 0;
+        String formatString = null;
+
+        if (Objects.nonNull(styleIndex) && Objects.nonNull(stylesTable)) {
+            XSSFCellStyle style = stylesTable.getStyleAt(Integer.parseInt(styleIndex));
+            if (Objects.nonNull(style)) {
+                formatIndex = style.getDataFormat();
+                formatString = style.getDataFormatString();
+            }
+        }
+
+        if (Objects.isNull(formatString)) {
+            formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+        }
+
+        try {
+            return formatter.formatRawCellContents(Double.parseDouble(content), formatIndex, formatString);
+        } catch (NumberFormatException e) {
+            return content;
+        }
+    }
+
+    private static int getColumnIndex(String cellReference) {
+
+        int columnIndex = 0;
+
+        for (int i = 0; i < cellReference.length(); i++) {
+            char ch = cellReference.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            columnIndex = columnIndex * 26 + (ch - 'A' + 1);
+        }
+
+        return columnIndex - 1;
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+
+        if (Objects.nonNull(inputStream)) {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                log.warn("Error while closing sheet stream");
+            }
+        }
+    }
+
+    private void close() {
+
+        if (Objects.nonNull(this.sheetReader)) {
+            try {
+                this.sheetReader.close();
+            } catch (XMLStreamException e) {
+                log.warn("Error while closing sheet reader");
+            }
+        }
+
+        closeQuietly(this.sheetInputStream);
+        this.bytesRead = getBytesRead();
+
+        if (Objects.nonNull(this.opcPackage)) {
+            this.opcPackage.revert();
+        }
+
+        // shared strings can be as large as the sheet, a finished reader held by its import job must not keep them
+        this.sheetReader = null;
+        this.sheetInputStream = null;
+        this.opcPackage = null;
+        this.sharedXssfReader = null;
+        this.sharedStrings = null;
+        this.stylesTable = null;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.github.srilaxmi.filereader.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Sparse row to byte offset index of a csv file, the offset where every ROW_STRIDE-th data row starts.
+ * Entries are recorded by readers as they skip rows, so a range read seeks to the nearest indexed row and parses
+ * at most ROW_STRIDE rows before it. Indexes of the most recently read files are kept in memory. A file is identified
+ * by its path, size and a checksum of its first and last bytes rather than its modification time, as previews write
+ * every upload of a file to the same path again.
+ */
+public final class CsvRowIndex {
+
+    public static final Long ROW_STRIDE = 1000L;
+
+    private static final Integer MAX_INDEXED_FILES = 64;
+    private static final int CHECKSUM_BYTES = 64 * 1024;
+
+    private static final Map<String, CsvRowIndex> INDEXES = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CsvRowIndex> eldest) {
+                    return size() > MAX_INDEXED_FILES;
+                }
+            });
+
+    // data rows before the offset to the offset
+    private final TreeMap<Long, Long> offsets = new TreeMap<>();
+
+    private CsvRowIndex() {
+    }
+
+    /**
+     * @param parser: readers that split records differently, or use another separator, keep separate indexes of a file
+     */
+    public static CsvRowIndex forFile(String filePath, String parser) throws IOException {
+
+        File file = new File(filePath);
+        String key = file.getAbsolutePath() + "|" + file.length() + "|" + getChecksum(file) + "|" + parser;
+
+        return INDEXES.computeIfAbsent(key, k -> new CsvRowIndex());
+    }
+
+    /**
+     * @param rowsBefore: data rows, counted as getAllRows emits them, before sourceOffset
+     */
+    public synchronized void record(Long rowsBefore, Long sourceOffset) {
+
+        if (rowsBefore % ROW_STRIDE == 0) {
+            offsets.putIfAbsent(rowsBefore, sourceOffset);
+        }
+    }
+
+    /**
+     * @return the indexed row closest to and not after rowNumber with its offset, null if nothing is indexed yet
+     */
+    public synchronized Map.Entry<Long, Long> floor(Long rowNumber) {
+
+        return offsets.floorEntry(rowNumber);
+    }
+
+    private static long getChecksum(File file) throws IOException {
+
+        CRC32 crc32 = new CRC32();
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+
+            long length = randomAccessFile.length();
+            byte[] bytes = new byte[(int) Math.min(length, CHECKSUM_BYTES)];
+            randomAccessFile.readFully(bytes);
+            crc32.update(bytes);
+
+            if (length > CHECKSUM_BYTES) {
+                randomAccessFile.seek(Math.max(CHECKSUM_BYTES, length - CHECKSUM_BYTES));
+                bytes = new byte[(int) (length - randomAccessFile.getFilePointer())];
+                randomAccessFile.readFully(bytes);
+                crc32.update(bytes);
+            }
+        }
+
+        return crc32.getValue();
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.github.srilaxmi.filereader.util;
+
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Blocking InputStream over a stream of data buffers, e.g. the content of an uploaded part while it is still arriving.
+ * At most prefetch buffers are requested ahead of the reader, so a slow reader slows down the upload instead of
+ * buffering it. Reads block, so the stream must not be read on the netty event loop. Closing it cancels the source.
+ */
+public final class DataBufferInputStream extends InputStream {
+
+    private static final Object COMPLETE = new Object();
+
+    private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+    private final BufferSubscriber subscriber = new BufferSubscriber();
+    private final int prefetch;
+    private final int replenishCount;
+
+    private DataBuffer current;
+    private int consumed;
+    private boolean done;
+    private Throwable error;
+    private volatile boolean closed;
+
+    public DataBufferInputStream(Flux<DataBuffer> content, int prefetch) {
+        this.prefetch = prefetch;
+        this.replenishCount = Math.max(prefetch / 2, 1);
+        content.subscribe(subscriber);
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    /**
+     * Buffer state is only touched under the lock so that close from another thread cannot release a buffer being read,
+     * waiting for the next buffer happens outside of it
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+
+        if (length == 0) {
+            return 0;
+        }
+
+        while (true) {
+
+            synchronized (this) {
+
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+
+                if (Objects.nonNull(current) && current.readableByteCount() > 0) {
+                    int count = Math.min(length, current.readableByteCount());
+                    current.read(bytes, offset, count);
+                    return count;
+                }
+
+                releaseCurrent();
+
+                if (done) {
+                    if (Objects.nonNull(error)) {
+                        throw new IOException("Failed reading the uploaded content", error);
+                    }
+                    return -1;
+                }
+            }
+
+            Object signal = takeSignal();
+
+            synchronized (this) {
+                acceptSignal(signal);
+            }
+        }
+    }
+
+    @Override
+    public synchronized int available() {
+
+        return Objects.isNull(current) ? 0 : current.readableByteCount();
+    }
+
+    @Override
+    public synchronized void close() {
+
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        subscriber.dispose();
+        releaseCurrent();
+        releaseQueued();
+
+        // wakes up a read blocked on another thread
+        signals.add(COMPLETE);
+    }
+
+    private void acceptSignal(Object signal) {
+
+        if (signal == COMPLETE) {
+            done = true;
+        } else if (signal instanceof Throwable) {
+            done = true;
+            error = (Throwable) signal;
+        } else if (closed) {
+            DataBufferUtils.release((DataBuffer) signal);
+        } else {
+            current = (DataBuffer) signal;
+            if (++consumed == replenishCount) {
+                consumed = 0;
+                subscriber.request(replenishCount);
+            }
+        }
+    }
+
+    private Object takeSignal() throws IOException {
+
+        try {
+            return signals.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for uploaded content");
+        }
+    }
+
+    private void releaseCurrent() {
+
+        if (Objects.nonNull(current)) {
+            DataBufferUtils.release(current);
+            current = null;
+        }
+    }
+
+    private void releaseQueued() {
+
+        Object signal;
+
+        while (Objects.nonNull(signal = signals.poll())) {
+            if (signal instanceof DataBuffer) {
+                DataBufferUtils.release((DataBuffer) signal);
+            }
+        }
+    }
+
+    private class BufferSubscriber extends BaseSubscriber<DataBuffer> {
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            subscription.request(prefetch);
+        }
+
+        @Override
+        protected void hookOnNext(DataBuffer dataBuffer) {
+
+            signals.add(dataBuffer);
+
+            // close may have drained the queue between the check and the add
+            if (closed) {
+                releaseQueued();
+            }
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            signals.add(COMPLETE);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            signals.add(throwable);
+        }
+    }
+
+}
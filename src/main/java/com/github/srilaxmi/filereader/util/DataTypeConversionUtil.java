@@ -21,6 +21,7 @@ import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.github.srilaxmi.filereader.constants.GlobalConstants.TRAILING_NON_BREAKING_SPACES_COMMA_REMOVER_REGEX;
@@ -34,6 +35,8 @@ public class DataTypeConversionUtil {
 
     public final static ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final Pattern TRAILING_NON_BREAKING_SPACES_COMMA_REMOVER_PATTERN = Pattern.compile(TRAILING_NON_BREAKING_SPACES_COMMA_REMOVER_REGEX);
+
     public static Object getConvertedValue(String field, Object value, Map<String, DataType> fieldDataTypeMap) {
 
         if (!CollectionUtils.isEmpty(fieldDataTypeMap) && fieldDataTypeMap.containsKey(field)) {
@@ -58,17 +61,41 @@ public class DataTypeConversionUtil {
 
     }
 
+    /**
+     * Whole numbers are returned as Integer, or Long when they do not fit in an int, everything else as Double
+     */
     public static Object convertToNumber(Object rawValue) {
 
         if (ObjectUtils.isEmpty(rawValue)) {
             return "";
         }
 
-        try {
-            return convertToNumber(rawValue, Integer.class, 0, Boolean.FALSE);
-        } catch (NumberFormatException e) {
-            return convertToNumber(rawValue, Double.class, 0.0, Boolean.FALSE);
+        NumericScanner scanner = NumericScanner.current();
+        String value = rawValue.toString();
+
+        switch (scanner.scan(value)) {
+            case INTEGER:
+                return scanner.getIntValue();
+            case LONG:
+                return scanner.getLongValue();
+            case DOUBLE:
+                return getWholeNumberOrDouble(scanner.getDoubleValue());
+            default:
+                throw new NumberFormatException("For input string: \"" + value + "\"");
+        }
+    }
+
+    private static Object getWholeNumberOrDouble(double value) {
+
+        if (value == Math.rint(value) && value >= Long.MIN_VALUE && value < Long.MAX_VALUE) {
+            long longValue = (long) value;
+            if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
+                return (int) longValue;
+            }
+            return longValue;
         }
+
+        return value;
     }
 
     public static Boolean convertToBoolean(Object value) {
@@ -214,7 +241,7 @@ public class DataTypeConversionUtil {
             return defaultValue;
         }
 
-        String rawValueString = rawValue.toString().replaceAll(TRAILING_NON_BREAKING_SPACES_COMMA_REMOVER_REGEX, "");
+        String rawValueString = removeCommaTrailingNonBreakingSpaces(rawValue.toString());
         String value = removeTrailingZeroesIfDataTypeIsNumber(rawValueString, fetchOneDecimal);
 
         try {
@@ -315,7 +342,7 @@ public class DataTypeConversionUtil {
 
     public static String removeCommaTrailingNonBreakingSpaces(String input) {
 
-        return input.replaceAll(TRAILING_NON_BREAKING_SPACES_COMMA_REMOVER_REGEX, "");
+        return TRAILING_NON_BREAKING_SPACES_COMMA_REMOVER_PATTERN.matcher(input).replaceAll("");
 
     }
 }
@@ -2,6 +2,7 @@ package com.github.srilaxmi.filereader.util;
 
 import com.github.srilaxmi.filereader.constants.DataType;
 import com.github.srilaxmi.filereader.constants.GlobalConstants;
+import com.github.srilaxmi.filereader.util.NumericScanner.NumericKind;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateFormatUtils;
@@ -10,8 +11,6 @@ import org.bson.Document;
 import java.util.Date;
 import java.util.Objects;
 
-import static com.github.srilaxmi.filereader.util.DataTypeConversionUtil.removeCommaTrailingNonBreakingSpaces;
-
 @Slf4j
 public class DataTypeUtil {
 
@@ -52,58 +51,50 @@ public class DataTypeUtil {
 
     public static Boolean isValueNumberType(Object value, Boolean strictCheck) {
 
-        return isValueDoubleType(value, strictCheck) || isValueFloatType(value, strictCheck) || isValueIntegerType(value, strictCheck);
+        if (strictCheck) {
+            return isValueDoubleType(value, Boolean.TRUE) || isValueFloatType(value, Boolean.TRUE) || isValueIntegerType(value, Boolean.TRUE);
+        }
+
+        return getNumericKind(value) != NumericKind.NOT_A_NUMBER;
     }
 
     public static Boolean isValueIntegerType(Object rawValue, Boolean strictCheck) {
 
-        try {
-
-            if (strictCheck) {
-                return rawValue instanceof Integer;
-            } else {
-                String value = removeCommaTrailingNonBreakingSpaces(rawValue.toString());
-                Integer.parseInt(value);
-                return Boolean.TRUE;
-            }
-
-        } catch (IllegalArgumentException | NullPointerException e) {
-            return Boolean.FALSE;
+        if (strictCheck) {
+            return rawValue instanceof Integer;
         }
+
+        return getNumericKind(rawValue) == NumericKind.INTEGER;
     }
 
     public static Boolean isValueDoubleType(Object rawValue, Boolean strictCheck) {
 
-        try {
-
-            if (strictCheck) {
-                return rawValue instanceof Double;
-            } else {
-                String value = removeCommaTrailingNonBreakingSpaces(rawValue.toString());
-                Double.parseDouble(value);
-                return Boolean.TRUE;
-            }
-
-        } catch (NumberFormatException | NullPointerException e) {
-            return Boolean.FALSE;
+        if (strictCheck) {
+            return rawValue instanceof Double;
         }
+
+        return getNumericKind(rawValue) != NumericKind.NOT_A_NUMBER;
     }
 
     public static Boolean isValueFloatType(Object rawValue, Boolean strictCheck) {
 
-        try {
+        if (strictCheck) {
+            return rawValue instanceof Float;
+        }
+
+        return getNumericKind(rawValue) != NumericKind.NOT_A_NUMBER;
+    }
 
-            if (strictCheck) {
-                return rawValue instanceof Float;
-            } else {
-                String value = removeCommaTrailingNonBreakingSpaces(rawValue.toString());
-                Float.parseFloat(value);
-                return Boolean.TRUE;
-            }
+    /**
+     * Classifies the value without building intermediate strings or throwing for non numeric values
+     */
+    public static NumericKind getNumericKind(Object rawValue) {
 
-        } catch (NumberFormatException | NullPointerException e) {
-            return Boolean.FALSE;
+        if (Objects.isNull(rawValue)) {
+            return NumericKind.NOT_A_NUMBER;
         }
+
+        return NumericScanner.classify(rawValue instanceof CharSequence ? (CharSequence) rawValue : rawValue.toString());
     }
 
     public static Document convertFieldToDateInDocumentIfPresent(
@@ -0,0 +1,226 @@
+package com.github.srilaxmi.filereader.util;
+
+import com.github.srilaxmi.filereader.constants.DuplicateDetection;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Detects repeated keys over a set of columns while rows stream by, keeping only a 64 bit hash per key.
+ * HASH_SET keeps the hashes in an open addressing table of longs, around 11 bytes per key, and is exact up to
+ * 64 bit hash collisions. BLOOM_FILTER uses a fixed size bit set for the expected number of keys, so some
+ * first occurrences are reported as duplicates at the configured false positive rate.
+ * Thread safe, so that sheets imported concurrently into one collection can share a detector.
+ */
+public final class DuplicateKeyDetector {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long SECOND_HASH_SEED = 0x9e3779b97f4a7c15L;
+    private static final char COLUMN_SEPARATOR = '\u001f';
+    private static final char NULL_MARKER = '\u0000';
+
+    private final List<String> keyColumns;
+    private final DuplicateDetection detection;
+    private final KeyHashSet keyHashes;
+
+    private DuplicateKeyDetector(List<String> keyColumns, DuplicateDetection detection, KeyHashSet keyHashes) {
+        this.keyColumns = keyColumns;
+        this.detection = detection;
+        this.keyHashes = keyHashes;
+    }
+
+    /**
+     * @param expectedKeys: number of keys the bloom filter is sized for, the hash set grows as needed
+     * @param falsePositiveRate: share of first occurrences the bloom filter may report as duplicates
+     */
+    public static DuplicateKeyDetector create(
+            List<String> keyColumns, DuplicateDetection detection, Long expectedKeys, Double falsePositiveRate
+    ) {
+
+        KeyHashSet keyHashes = DuplicateDetection.BLOOM_FILTER.equals(detection) ?
+                new BloomFilter(expectedKeys, falsePositiveRate) :
+                new LongHashSet();
+
+        return new DuplicateKeyDetector(keyColumns, detection, keyHashes);
+    }
+
+    public List<String> getKeyColumns() {
+        return keyColumns;
+    }
+
+    public DuplicateDetection getDetection() {
+        return detection;
+    }
+
+    /**
+     * Records the row's key, rows where every key column is blank are never duplicates
+     *
+     * @return true if the key was seen before
+     */
+    public synchronized Boolean isDuplicate(Document row) {
+
+        if (isKeyBlank(row)) {
+            return false;
+        }
+
+        return !keyHashes.add(hashKey(row, keyColumns));
+    }
+
+    /**
+     * 64 bit FNV-1a over the string form of the key values, finished with the murmur3 mixer
+     */
+    public static long hashKey(Document row, List<String> keyColumns) {
+
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < keyColumns.size(); i++) {
+
+            if (i > 0) {
+                hash = (hash ^ COLUMN_SEPARATOR) * FNV_PRIME;
+            }
+
+            Object value = row.get(keyColumns.get(i));
+            String stringValue = Objects.isNull(value) ? String.valueOf(NULL_MARKER) : value.toString();
+
+            for (int j = 0; j < stringValue.length(); j++) {
+                hash = (hash ^ stringValue.charAt(j)) * FNV_PRIME;
+            }
+        }
+
+        return mix(hash);
+    }
+
+    private boolean isKeyBlank(Document row) {
+
+        for (String keyColumn : keyColumns) {
+            Object value = row.get(keyColumn);
+            boolean blank = value instanceof CharSequence ? StringUtils.isBlank((CharSequence) value) : ObjectUtils.isEmpty(value);
+            if (!blank) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long mix(long hash) {
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+    private interface KeyHashSet {
+
+        /**
+         * @return true if the hash was not present before
+         */
+        boolean add(long hash);
+    }
+
+    /**
+     * Linear probing over a power of two table, 0 marks an empty slot so a zero hash is stored as a fixed substitute
+     */
+    private static final class LongHashSet implements KeyHashSet {
+
+        private static final int INITIAL_CAPACITY = 1 << 16;
+        private static final double MAX_LOAD_FACTOR = 0.75;
+        private static final long ZERO_SUBSTITUTE = 0x5bd1e9955bd1e995L;
+
+        private long[] table = new long[INITIAL_CAPACITY];
+        private int size;
+        private int resizeThreshold = (int) (INITIAL_CAPACITY * MAX_LOAD_FACTOR);
+
+        @Override
+        public boolean add(long hash) {
+
+            long key = hash == 0 ? ZERO_SUBSTITUTE : hash;
+
+            if (!insert(table, key)) {
+                return false;
+            }
+
+            if (++size > resizeThreshold) {
+                resize();
+            }
+
+            return true;
+        }
+
+        private static boolean insert(long[] table, long key) {
+
+            int mask = table.length - 1;
+            int slot = (int) key & mask;
+
+            while (table[slot] != 0) {
+                if (table[slot] == key) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            table[slot] = key;
+            return true;
+        }
+
+        private void resize() {
+
+            long[] resized = new long[table.length * 2];
+
+            for (long key : table) {
+                if (key != 0) {
+                    insert(resized, key);
+                }
+            }
+
+            table = resized;
+            resizeThreshold = (int) (resized.length * MAX_LOAD_FACTOR);
+        }
+    }
+
+    /**
+     * Kirsch-Mitzenmacher double hashing, both hashes are derived from the 64 bit key hash
+     */
+    private static final class BloomFilter implements KeyHashSet {
+
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        private BloomFilter(long expectedKeys, double falsePositiveRate) {
+
+            double optimalBits = -expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+            this.bitCount = Math.max(64L, (long) Math.ceil(optimalBits / 64) * 64);
+            this.bits = new long[Math.toIntExact(bitCount / 64)];
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * Math.log(2)));
+        }
+
+        @Override
+        public boolean add(long hash) {
+
+            long secondHash = mix(hash ^ SECOND_HASH_SEED) | 1;
+            boolean added = false;
+
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash + i * secondHash, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                if ((bits[word] & mask) == 0) {
+                    bits[word] |= mask;
+                    added = true;
+                }
+            }
+
+            return added;
+        }
+    }
+
+}
@@ -5,12 +5,15 @@ import com.aspose.cells.Row;
 import com.aspose.cells.Workbook;
 import com.aspose.cells.Worksheet;
 import com.github.srilaxmi.filereader.constants.DataType;
+import com.github.srilaxmi.filereader.dto.SheetMetadata;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.github.srilaxmi.filereader.util.DataTypeConversionUtil.getConvertedValue;
 @Slf4j
@@ -49,6 +52,21 @@ public class FileParseUtil {
         return rowData;
     }
 
+    public static Document convertDocumentValues(
+            Document document, Map<String, DataType> dataTypeMap
+    ) {
+
+        if (dataTypeMap.isEmpty()) {
+            return document;
+        }
+
+        for (Map.Entry<String, Object> entry : document.entrySet()) {
+            entry.setValue(getConvertedValue(entry.getKey(), entry.getValue(), dataTypeMap));
+        }
+
+        return document;
+    }
+
     public static Document createMapForSingleRecordForXlsbOrXlsOrTsvFile(
             Row rowContents, List<String> columns, Map<String, DataType> dataTypeMap
     ) {
@@ -100,22 +118,38 @@ public class FileParseUtil {
         return extension.equals("XLSX") || extension.equals("XLS") || extension.equals("XLSB");
     }
 
+    /**
+     * Sheet names are read from the workbook directory, a workbook that cannot be read that way is loaded in full
+     */
     public static List<String> getSheetNamesInXlsxOrXlsbOrXlsFile(String path) throws Exception {
 
         if (isXlsxOrXlsbOrXlsFile(path)) {
-            BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(path));
-            List<String> sheetNames = new ArrayList<>();
-            Workbook workbook = new Workbook(bufferedInputStream);
-            for (int i = 0; i < workbook.getWorksheets().getCount(); i++) {
-                Worksheet sheet = workbook.getWorksheets().get(i);
-                sheetNames.add(sheet.getName());
+            try {
+                return WorkbookMetadataUtil.getWorkbookMetadata(new File(path), new File(path).getName()).getSheets()
+                        .stream()
+                        .map(SheetMetadata::getName)
+                        .collect(Collectors.toList());
+            } catch (IOException e) {
+                log.warn("{} :: Unable to read sheet names from the workbook directory, loading the workbook", path, e);
+                return getSheetNamesFromLoadedWorkbook(path);
             }
-            bufferedInputStream.close();
-            return sheetNames;
         }
         return new ArrayList<>();
     }
 
+    private static List<String> getSheetNamesFromLoadedWorkbook(String path) throws Exception {
+
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(path));
+        List<String> sheetNames = new ArrayList<>();
+        Workbook workbook = new Workbook(bufferedInputStream);
+        for (int i = 0; i < workbook.getWorksheets().getCount(); i++) {
+            Worksheet sheet = workbook.getWorksheets().get(i);
+            sheetNames.add(sheet.getName());
+        }
+        bufferedInputStream.close();
+        return sheetNames;
+    }
+
     public static String replaceNewlinesAndStrip(String value) {
         value = value.replaceAll(SPECIAL_CHARS_REGEX, " ");
         return value.strip();
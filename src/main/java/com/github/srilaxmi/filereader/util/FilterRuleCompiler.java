@@ -0,0 +1,275 @@
+package com.github.srilaxmi.filereader.util;
+
+import com.github.srilaxmi.filereader.constants.Operator;
+import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.dto.FilterRule;
+import lombok.experimental.UtilityClass;
+import org.bson.Document;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static com.github.srilaxmi.filereader.constants.GlobalConstants.EMPTY_STRING;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+/**
+ * Compiles filter rules once into predicates that give the same result as {@link Operator#apply(Object, Object)},
+ * with patterns, numeric right hand sides and IN lists prepared up front instead of on every row.
+ * Rules are combined with AND, an empty rule list matches every row.
+ */
+@UtilityClass
+public class FilterRuleCompiler {
+
+    private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    public static Predicate<FileRow> compileForRows(List<FilterRule> filterRules) {
+
+        Predicate<Document> predicate = compile(filterRules);
+        return fileRow -> predicate.test(fileRow.getRow());
+    }
+
+    public static Predicate<Document> compile(List<FilterRule> filterRules) {
+
+        if (Objects.isNull(filterRules) || filterRules.isEmpty()) {
+            return document -> true;
+        }
+
+        if (filterRules.size() == 1) {
+            return compile(filterRules.get(0));
+        }
+
+        @SuppressWarnings("unchecked")
+        Predicate<Document>[] predicates = filterRules.stream()
+                .map(FilterRuleCompiler::compile)
+                .toArray(Predicate[]::new);
+
+        return document -> {
+            for (Predicate<Document> predicate : predicates) {
+                if (!predicate.test(document)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    public static Predicate<Document> compile(FilterRule filterRule) {
+
+        String field = filterRule.getField();
+        Predicate<Object> valuePredicate = compileValuePredicate(filterRule.getOperator(), filterRule.getValue());
+
+        return document -> valuePredicate.test(document.get(field));
+    }
+
+    /**
+     * NOT_ENDS_WITH treats a missing lhs as an empty string like the other text operators
+     */
+    public static Predicate<Object> compileValuePredicate(Operator operator, Object rhsValue) {
+
+        Objects.requireNonNull(operator, "Filter rule operator is required");
+
+        switch (operator) {
+            case EQUALS:
+                return lhsValue -> Objects.equals(lhsValue, rhsValue);
+            case NOT_EQUALS:
+                return lhsValue -> !Objects.equals(lhsValue, rhsValue);
+            case CONTAINS:
+                return compileContains(rhsValue, false);
+            case NOT_CONTAINS:
+                return compileContains(rhsValue, true);
+            case NOT_EMPTY:
+                return lhsValue -> Objects.nonNull(lhsValue) && !Objects.equals(lhsValue, EMPTY_STRING);
+            case IS_EMPTY:
+                return lhsValue -> Objects.isNull(lhsValue) || Objects.equals(lhsValue, EMPTY_STRING);
+            case STARTS_WITH:
+                return compileStartsWith(rhsValue, false);
+            case NOT_STARTS_WITH:
+                return compileStartsWith(rhsValue, true);
+            case ENDS_WITH:
+                return compileEndsWith(rhsValue, false);
+            case NOT_ENDS_WITH:
+                return compileEndsWith(rhsValue, true);
+            case GREATER_THAN:
+            case LESS_THAN:
+            case GREATER_THAN_EQUALS:
+            case LESS_THAN_EQUALS:
+                return compileComparison(operator, rhsValue);
+            case IS_IN:
+                return compileIn(rhsValue, false);
+            case IS_NOT_IN:
+                return compileIn(rhsValue, true);
+            default:
+                return lhsValue -> operator.apply(lhsValue, rhsValue);
+        }
+    }
+
+    private static Predicate<Object> compileContains(Object rhsValue, boolean negate) {
+
+        if (Objects.isNull(rhsValue)) {
+            return lhsValue -> negate;
+        }
+
+        String rhs = rhsValue.toString();
+        return lhsValue -> Objects.nonNull(lhsValue) ? lhsValue.toString().contains(rhs) != negate : negate;
+    }
+
+    private static Predicate<Object> compileStartsWith(Object rhsValue, boolean negate) {
+
+        if (Objects.isNull(rhsValue)) {
+            return lhsValue -> negate;
+        }
+
+        String rhs = rhsValue.toString();
+
+        if (isLiteralAscii(rhs)) {
+            return lhsValue -> regionMatchesAsciiIgnoreCase(toText(lhsValue), 0, rhs) != negate;
+        }
+
+        Pattern pattern = Pattern.compile("^" + rhs, CASE_INSENSITIVE);
+        return lhsValue -> pattern.matcher(toText(lhsValue)).find() != negate;
+    }
+
+    /**
+     * '$' also matches before a final line terminator, such values are left to the compiled pattern
+     */
+    private static Predicate<Object> compileEndsWith(Object rhsValue, boolean negate) {
+
+        if (Objects.isNull(rhsValue)) {
+            return lhsValue -> negate;
+        }
+
+        String rhs = rhsValue.toString();
+        Pattern pattern = Pattern.compile(rhs + "$", CASE_INSENSITIVE);
+
+        if (isLiteralAscii(rhs)) {
+            return lhsValue -> {
+                String lhs = toText(lhsValue);
+                if (!lhs.isEmpty() && isLineTerminator(lhs.charAt(lhs.length() - 1))) {
+                    return pattern.matcher(lhs).find() != negate;
+                }
+                int offset = lhs.length() - rhs.length();
+                return (offset >= 0 && regionMatchesAsciiIgnoreCase(lhs, offset, rhs)) != negate;
+            };
+        }
+
+        return lhsValue -> pattern.matcher(toText(lhsValue)).find() != negate;
+    }
+
+    /**
+     * Mirrors Operator.compare, numeric lhs values are compared as doubles and everything else as strings
+     */
+    private static Predicate<Object> compileComparison(Operator operator, Object rhsValue) {
+
+        if (Objects.isNull(rhsValue)) {
+            return lhsValue -> false;
+        }
+
+        String rhsText = rhsValue.toString();
+        Double rhsNumber = parseDoubleOrNull(rhsText);
+
+        return lhsValue -> {
+
+            if (lhsValue instanceof Integer || lhsValue instanceof Double || lhsValue instanceof Float) {
+
+                if (Objects.isNull(rhsNumber)) {
+                    throw new NumberFormatException("For input string: \"" + rhsText + "\"");
+                }
+
+                double lhs = lhsValue instanceof Float ?
+                        Double.parseDouble(lhsValue.toString()) :
+                        ((Number) lhsValue).doubleValue();
+
+                return isSatisfied(operator, Double.compare(lhs, rhsNumber));
+            }
+
+            return isSatisfied(operator, toText(lhsValue).compareTo(rhsText));
+        };
+    }
+
+    private static Predicate<Object> compileIn(Object rhsValue, boolean negate) {
+
+        if (!(rhsValue instanceof List)) {
+            return lhsValue -> negate;
+        }
+
+        Set<?> rhsValues = new HashSet<>((List<?>) rhsValue);
+        return lhsValue -> rhsValues.contains(lhsValue) != negate;
+    }
+
+    private static boolean isSatisfied(Operator operator, int comparison) {
+
+        switch (operator) {
+            case LESS_THAN:
+                return comparison < 0;
+            case GREATER_THAN:
+                return comparison > 0;
+            case LESS_THAN_EQUALS:
+                return comparison <= 0;
+            case GREATER_THAN_EQUALS:
+                return comparison >= 0;
+            default:
+                return false;
+        }
+    }
+
+    private static Double parseDoubleOrNull(String value) {
+
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String toText(Object value) {
+
+        return Objects.isNull(value) ? EMPTY_STRING : value.toString();
+    }
+
+    private static boolean isLiteralAscii(String value) {
+
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch > 127 || REGEX_META_CHARACTERS.indexOf(ch) >= 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isLineTerminator(char ch) {
+
+        return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+    }
+
+    /**
+     * Case folding limited to ASCII letters, the same as a CASE_INSENSITIVE pattern without UNICODE_CASE
+     */
+    private static boolean regionMatchesAsciiIgnoreCase(String lhs, int offset, String rhs) {
+
+        if (offset + rhs.length() > lhs.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < rhs.length(); i++) {
+            char lhsChar = lhs.charAt(offset + i);
+            char rhsChar = rhs.charAt(i);
+            if (lhsChar != rhsChar && toAsciiLowerCase(lhsChar) != toAsciiLowerCase(rhsChar)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static char toAsciiLowerCase(char ch) {
+
+        return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+    }
+
+}
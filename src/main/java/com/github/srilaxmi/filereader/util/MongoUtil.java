@@ -4,8 +4,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.srilaxmi.filereader.dto.Pair;
 import org.bson.Document;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.github.srilaxmi.filereader.constants.GlobalConstants.*;
@@ -13,6 +16,10 @@ import static com.github.srilaxmi.filereader.constants.GlobalConstants.*;
 public class MongoUtil {
 
     private static final Integer ID_DISPLAY_VALUES_LIMIT = 10;
+    private static final Integer BSON_DOCUMENT_OVERHEAD = 5;
+    private static final Integer BSON_STRING_OVERHEAD = 5;
+    private static final Integer BSON_NUMBER_SIZE = 8;
+    private static final Pattern INVALID_COLLECTION_NAME_CHARS = Pattern.compile("[$\\u0000\\s]+");
 
     private static ObjectMapper objectMapper = new ObjectMapper();
 
@@ -34,6 +41,14 @@ public class MongoUtil {
 
     }
 
+    /**
+     * @return name of the collection a sheet is written to when every sheet of a workbook gets its own collection
+     */
+    public static String getSheetCollectionName(String collection, String sheetName) {
+
+        return collection + "_" + INVALID_COLLECTION_NAME_CHARS.matcher(sheetName.strip()).replaceAll("_");
+    }
+
     public static Boolean areMongoDocumentsIdentical(Document document1, Document document2) {
 
         document1.remove(_ID);
@@ -79,4 +94,44 @@ public class MongoUtil {
         return stringBuilder.toString();
     }
 
+    /**
+     * Approximates the encoded BSON size of a document from its keys and values without encoding it.
+     * String lengths are counted in chars, so the estimate is exact for ASCII content.
+     */
+    public static long estimateBsonSize(Map<String, Object> document) {
+
+        long size = BSON_DOCUMENT_OVERHEAD;
+
+        for (Map.Entry<String, Object> entry : document.entrySet()) {
+            size += 2 + entry.getKey().length() + estimateBsonValueSize(entry.getValue());
+        }
+
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long estimateBsonValueSize(Object value) {
+
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String) {
+            return BSON_STRING_OVERHEAD + ((String) value).length();
+        } else if (value instanceof Number || value instanceof Date) {
+            return BSON_NUMBER_SIZE;
+        } else if (value instanceof Boolean) {
+            return 1;
+        } else if (value instanceof Map) {
+            return estimateBsonSize((Map<String, Object>) value);
+        } else if (value instanceof Collection) {
+            long size = BSON_DOCUMENT_OVERHEAD;
+            int index = 0;
+            for (Object element : (Collection<?>) value) {
+                size += 2 + String.valueOf(index++).length() + estimateBsonValueSize(element);
+            }
+            return size;
+        } else {
+            return BSON_STRING_OVERHEAD + value.toString().length();
+        }
+    }
+
 }
@@ -0,0 +1,303 @@
+package com.github.srilaxmi.filereader.util;
+
+/**
+ * Single pass, exception free classifier for numeric cell values. Accepts the same inputs as
+ * removeCommaTrailingNonBreakingSpaces followed by Double.parseDouble for plain decimal notation:
+ * spaces, commas and '&amp;nbsp;' are skipped anywhere, trailing whitespace and non breaking spaces are ignored.
+ * Hexadecimal literals, NaN, Infinity and the d/f type suffixes are not treated as numbers.
+ * <p>
+ * A scanner keeps the result of the last scan and is not thread-safe, use {@link #current()} for a per-thread instance.
+ */
+public final class NumericScanner {
+
+    public enum NumericKind {
+        INTEGER,
+        LONG,
+        DOUBLE,
+        NOT_A_NUMBER
+    }
+
+    private static final ThreadLocal<NumericScanner> SCANNERS = ThreadLocal.withInitial(NumericScanner::new);
+
+    private static final String NON_BREAKING_SPACE_ENTITY = "&nbsp;";
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final int MAX_EXACT_MANTISSA_DIGITS = 15;
+    private static final int MAX_EXACT_POWER_OF_TEN = 22;
+    private static final int MAX_EXPONENT = 100_000;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER_OF_TEN + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private NumericKind kind = NumericKind.NOT_A_NUMBER;
+    private long longValue;
+    private double doubleValue;
+
+    public static NumericScanner current() {
+        return SCANNERS.get();
+    }
+
+    public static NumericKind classify(CharSequence input) {
+        return current().scan(input);
+    }
+
+    public NumericKind getKind() {
+        return kind;
+    }
+
+    public int getIntValue() {
+        return (int) longValue;
+    }
+
+    /**
+     * @return the scanned value for INTEGER and LONG results
+     */
+    public long getLongValue() {
+        return longValue;
+    }
+
+    /**
+     * @return the scanned value for any numeric result
+     */
+    public double getDoubleValue() {
+        return doubleValue;
+    }
+
+    /**
+     * @return true if the last scanned number has no fractional part, e.g. 12, 12.0 or 1.2e1
+     */
+    public boolean isIntegral() {
+        return kind == NumericKind.INTEGER || kind == NumericKind.LONG ||
+                (kind == NumericKind.DOUBLE && doubleValue == Math.rint(doubleValue) && !Double.isInfinite(doubleValue));
+    }
+
+    public NumericKind scan(CharSequence input) {
+
+        kind = NumericKind.NOT_A_NUMBER;
+        longValue = 0L;
+        doubleValue = 0.0;
+
+        if (input == null) {
+            return kind;
+        }
+
+        int end = getTrimmedEnd(input);
+        int start = 0;
+
+        boolean negative = false;
+        boolean seenSign = false;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        boolean seenExponent = false;
+        boolean droppedDigits = false;
+        long mantissa = 0L;
+        int mantissaDigits = 0;
+        int decimalExponent = 0;
+
+        boolean exponentNegative = false;
+        boolean seenExponentSign = false;
+        boolean seenExponentDigit = false;
+        int exponent = 0;
+
+        for (int index = start; index < end; index++) {
+            char ch = input.charAt(index);
+
+            if (ch == ' ' || ch == ',') {
+                continue;
+            }
+
+            if (ch == '&' && isNonBreakingSpaceEntity(input, index, end)) {
+                index += NON_BREAKING_SPACE_ENTITY.length() - 1;
+                continue;
+            }
+
+            if (ch < ' ' && !seenSign && !seenDigit && !seenPoint) {
+                continue;
+            }
+
+            if (!seenExponent) {
+
+                if (ch >= '0' && ch <= '9') {
+                    seenDigit = true;
+                    int digit = ch - '0';
+
+                    if (mantissa == 0 && digit == 0) {
+                        if (seenPoint) {
+                            decimalExponent--;
+                        }
+                    } else if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+                        mantissa = mantissa * 10 + digit;
+                        mantissaDigits++;
+                        if (seenPoint) {
+                            decimalExponent--;
+                        }
+                    } else {
+                        droppedDigits = true;
+                        if (!seenPoint) {
+                            decimalExponent++;
+                        }
+                    }
+
+                } else if (ch == '.' && !seenPoint) {
+                    seenPoint = true;
+                } else if ((ch == '+' || ch == '-') && !seenSign && !seenDigit && !seenPoint) {
+                    seenSign = true;
+                    negative = ch == '-';
+                } else if ((ch == 'e' || ch == 'E') && seenDigit) {
+                    seenExponent = true;
+                } else {
+                    return kind;
+                }
+
+            } else {
+
+                if (ch >= '0' && ch <= '9') {
+                    seenExponentDigit = true;
+                    if (exponent < MAX_EXPONENT) {
+                        exponent = exponent * 10 + (ch - '0');
+                    }
+                } else if ((ch == '+' || ch == '-') && !seenExponentSign && !seenExponentDigit) {
+                    seenExponentSign = true;
+                    exponentNegative = ch == '-';
+                } else {
+                    return kind;
+                }
+            }
+        }
+
+        if (!seenDigit || (seenExponent && !seenExponentDigit)) {
+            return kind;
+        }
+
+        if (droppedDigits) {
+            return scanWithFallback(input, start, end, !seenPoint && !seenExponent);
+        }
+
+        if (!seenPoint && !seenExponent) {
+            longValue = negative ? -mantissa : mantissa;
+            doubleValue = longValue;
+            kind = (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) ? NumericKind.INTEGER : NumericKind.LONG;
+            return kind;
+        }
+
+        int totalExponent = decimalExponent + (exponentNegative ? -exponent : exponent);
+
+        if (mantissa == 0) {
+            doubleValue = negative ? -0.0 : 0.0;
+        } else if (mantissaDigits <= MAX_EXACT_MANTISSA_DIGITS && Math.abs(totalExponent) <= MAX_EXACT_POWER_OF_TEN) {
+            double value = totalExponent >= 0 ?
+                    mantissa * POWERS_OF_TEN[totalExponent] :
+                    mantissa / POWERS_OF_TEN[-totalExponent];
+            doubleValue = negative ? -value : value;
+        } else {
+            return scanWithFallback(input, start, end, false);
+        }
+
+        kind = NumericKind.DOUBLE;
+        return kind;
+    }
+
+    /**
+     * Handles inputs with more digits than can be converted exactly, the input has already been validated
+     */
+    private NumericKind scanWithFallback(CharSequence input, int start, int end, boolean integral) {
+
+        StringBuilder cleaned = new StringBuilder(end - start);
+
+        for (int index = start; index < end; index++) {
+            char ch = input.charAt(index);
+            if (ch <= ' ' || ch == ',') {
+                continue;
+            }
+            if (ch == '&' && isNonBreakingSpaceEntity(input, index, end)) {
+                index += NON_BREAKING_SPACE_ENTITY.length() - 1;
+                continue;
+            }
+            cleaned.append(ch);
+        }
+
+        String value = cleaned.toString();
+
+        if (integral && fitsInLong(value)) {
+            longValue = Long.parseLong(value);
+            doubleValue = longValue;
+            kind = NumericKind.LONG;
+            return kind;
+        }
+
+        doubleValue = Double.parseDouble(value);
+        kind = NumericKind.DOUBLE;
+        return kind;
+    }
+
+    private static boolean fitsInLong(String value) {
+
+        int digitsStart = (value.charAt(0) == '+' || value.charAt(0) == '-') ? 1 : 0;
+        String digits = value.substring(digitsStart).replaceFirst("^0+(?=\\d)", "");
+        String limit = String.valueOf(Long.MAX_VALUE);
+
+        if (digits.length() != limit.length()) {
+            return digits.length() < limit.length();
+        }
+
+        return digits.compareTo(value.charAt(0) == '-' ? "9223372036854775808" : limit) <= 0;
+    }
+
+    private static boolean isNonBreakingSpaceEntity(CharSequence input, int index, int end) {
+
+        int length = NON_BREAKING_SPACE_ENTITY.length();
+
+        if (index + length > end) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (input.charAt(index + i) != NON_BREAKING_SPACE_ENTITY.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Trailing commas, entities and control characters are dropped anywhere in the suffix, while
+     * non breaking spaces only count when they belong to the whitespace run at the very end of the input
+     */
+    private static int getTrimmedEnd(CharSequence input) {
+
+        int end = input.length();
+        boolean rawSuffix = true;
+
+        while (end > 0) {
+            char ch = input.charAt(end - 1);
+
+            if (ch <= ' ') {
+                end--;
+                rawSuffix = rawSuffix && isTrailingSpace(ch);
+            } else if (ch == ',') {
+                end--;
+                rawSuffix = false;
+            } else if (ch == '\u00A0' && rawSuffix) {
+                end--;
+            } else if (ch == ';' && end >= NON_BREAKING_SPACE_ENTITY.length() &&
+                    isNonBreakingSpaceEntity(input, end - NON_BREAKING_SPACE_ENTITY.length(), end)) {
+                end -= NON_BREAKING_SPACE_ENTITY.length();
+                rawSuffix = false;
+            } else {
+                break;
+            }
+        }
+
+        return end;
+    }
+
+    private static boolean isTrailingSpace(char ch) {
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r' || ch == '\u00A0';
+    }
+
+}
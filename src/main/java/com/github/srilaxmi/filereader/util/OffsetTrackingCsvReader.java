@@ -0,0 +1,147 @@
+package com.github.srilaxmi.filereader.util;
+
+import com.opencsv.CSVParser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Reads csv records like opencsv's CSVReader while keeping track of the exact byte offset at which the
+ * next record starts, so that a reader can later be positioned on a record boundary with a plain seek.
+ * Lines end at '\n', '\r' or "\r\n" like BufferedReader.readLine, multi line quoted values are joined by the parser.
+ */
+public final class OffsetTrackingCsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream inputStream;
+    private final Charset charset;
+    private final CSVParser parser;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private byte[] lineBuffer = new byte[1024];
+    private int position;
+    private int limit;
+    private long offset;
+    private boolean endOfStream;
+
+    /**
+     * @param startOffset: byte position of the stream in the source, offsets reported are relative to the source
+     */
+    public OffsetTrackingCsvReader(InputStream inputStream, long startOffset) {
+        this(inputStream, startOffset, Charset.defaultCharset());
+    }
+
+    public OffsetTrackingCsvReader(InputStream inputStream, long startOffset, Charset charset) {
+        this(inputStream, startOffset, charset, new CSVParser());
+    }
+
+    /**
+     * @param parser: parser for the file's separator and quoting, pending multi line values are kept in it
+     */
+    public OffsetTrackingCsvReader(InputStream inputStream, long startOffset, Charset charset, CSVParser parser) {
+        this.inputStream = inputStream;
+        this.offset = startOffset;
+        this.charset = charset;
+        this.parser = parser;
+    }
+
+    /**
+     * @return fields of the next record, or null once the stream is exhausted
+     */
+    public String[] readNext() throws IOException {
+
+        String[] result = null;
+
+        do {
+            String line = readLine();
+            if (line == null) {
+                return result;
+            }
+
+            String[] values = parser.parseLineMulti(line);
+            if (values.length > 0) {
+                result = result == null ? values : concat(result, values);
+            }
+        } while (parser.isPending());
+
+        return result;
+    }
+
+    /**
+     * @return byte offset just past the last record returned, i.e. where the next record starts
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    private String readLine() throws IOException {
+
+        int length = 0;
+
+        while (true) {
+
+            if (position >= limit && !fill()) {
+                return length == 0 ? null : decode(length);
+            }
+
+            byte current = buffer[position++];
+            offset++;
+
+            if (current == '\n') {
+                return decode(length);
+            }
+
+            if (current == '\r') {
+                if ((position < limit || fill()) && buffer[position] == '\n') {
+                    position++;
+                    offset++;
+                }
+                return decode(length);
+            }
+
+            if (length == lineBuffer.length) {
+                lineBuffer = Arrays.copyOf(lineBuffer, length * 2);
+            }
+            lineBuffer[length++] = current;
+        }
+    }
+
+    private boolean fill() throws IOException {
+
+        if (endOfStream) {
+            return false;
+        }
+
+        int read = inputStream.read(buffer, 0, buffer.length);
+
+        if (read <= 0) {
+            endOfStream = true;
+            return false;
+        }
+
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private String decode(int length) {
+        return new String(lineBuffer, 0, length, charset);
+    }
+
+    private static String[] concat(String[] first, String[] second) {
+
+        String[] combined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, combined, first.length, second.length);
+        return combined;
+    }
+
+}
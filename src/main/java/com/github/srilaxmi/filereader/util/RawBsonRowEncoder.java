@@ -0,0 +1,210 @@
+package com.github.srilaxmi.filereader.util;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Encodes the rows of a file straight to BSON for insert, so they skip the per document conversion of the mapping layer.
+ * Field names, the file's headers, are encoded once and reused for every row. Values of the types readers produce are
+ * written into a single reused buffer, rows holding any other type go through the driver's document codec.
+ * Not thread safe, one encoder per file or sheet.
+ */
+public final class RawBsonRowEncoder {
+
+    private static final byte BSON_DOUBLE = 0x01;
+    private static final byte BSON_STRING = 0x02;
+    private static final byte BSON_BOOLEAN = 0x08;
+    private static final byte BSON_DATE = 0x09;
+    private static final byte BSON_NULL = 0x0A;
+    private static final byte BSON_INT32 = 0x10;
+    private static final byte BSON_INT64 = 0x12;
+    private static final int INITIAL_BUFFER_BYTES = 4096;
+    private static final int MAX_ENCODED_FIELD_NAMES = 4096;
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+
+    private final Map<String, byte[]> encodedFieldNames = new HashMap<>();
+    private byte[] buffer = new byte[INITIAL_BUFFER_BYTES];
+    private int position;
+
+    public List<RawBsonDocument> encode(List<Document> rows) {
+
+        List<RawBsonDocument> documents = new ArrayList<>(rows.size());
+
+        for (Document row : rows) {
+            documents.add(encode(row));
+        }
+
+        return documents;
+    }
+
+    public RawBsonDocument encode(Document row) {
+
+        position = 0;
+        writeInt(0);
+
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (!writeElement(entry.getKey(), entry.getValue())) {
+                return new RawBsonDocument(row, DOCUMENT_CODEC);
+            }
+        }
+
+        writeByte(0);
+        putInt(0, position);
+
+        return new RawBsonDocument(Arrays.copyOf(buffer, position));
+    }
+
+    /**
+     * @return false if the value is of a type not written here, or the field name cannot be a BSON name
+     */
+    private boolean writeElement(String fieldName, Object value) {
+
+        byte[] encodedFieldName = getEncodedFieldName(fieldName);
+
+        if (Objects.isNull(encodedFieldName)) {
+            return false;
+        }
+
+        if (Objects.isNull(value)) {
+            writeName(BSON_NULL, encodedFieldName);
+        } else if (value instanceof String) {
+            writeName(BSON_STRING, encodedFieldName);
+            writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeName(BSON_INT32, encodedFieldName);
+            writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            writeName(BSON_INT64, encodedFieldName);
+            writeLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            writeName(BSON_DOUBLE, encodedFieldName);
+            writeLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Boolean) {
+            writeName(BSON_BOOLEAN, encodedFieldName);
+            writeByte((Boolean) value ? 1 : 0);
+        } else if (value instanceof Date) {
+            writeName(BSON_DATE, encodedFieldName);
+            writeLong(((Date) value).getTime());
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the name as a BSON cstring, null if it contains a null character
+     */
+    private byte[] getEncodedFieldName(String fieldName) {
+
+        byte[] encodedFieldName = encodedFieldNames.get(fieldName);
+
+        if (Objects.nonNull(encodedFieldName)) {
+            return encodedFieldName;
+        }
+
+        if (fieldName.indexOf('\u0000') >= 0) {
+            return null;
+        }
+
+        byte[] nameBytes = fieldName.getBytes(StandardCharsets.UTF_8);
+        encodedFieldName = Arrays.copyOf(nameBytes, nameBytes.length + 1);
+
+        if (encodedFieldNames.size() < MAX_ENCODED_FIELD_NAMES) {
+            encodedFieldNames.put(fieldName, encodedFieldName);
+        }
+
+        return encodedFieldName;
+    }
+
+    private void writeName(byte type, byte[] encodedFieldName) {
+
+        writeByte(type);
+        ensureCapacity(encodedFieldName.length);
+        System.arraycopy(encodedFieldName, 0, buffer, position, encodedFieldName.length);
+        position += encodedFieldName.length;
+    }
+
+    /**
+     * Length prefixed UTF-8 with a trailing null, ASCII is copied char by char without an intermediate byte array
+     */
+    private void writeString(String value) {
+
+        int lengthPosition = position;
+        writeInt(0);
+
+        int length = value.length();
+        ensureCapacity(length + 1);
+
+        int start = position;
+        int i = 0;
+
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            buffer[position++] = (byte) c;
+            i++;
+        }
+
+        if (i < length) {
+            position = start;
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(bytes.length + 1);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        buffer[position++] = 0;
+        putInt(lengthPosition, position - start);
+    }
+
+    private void writeByte(int value) {
+
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+
+        ensureCapacity(4);
+        putInt(position, value);
+        position += 4;
+    }
+
+    private void writeLong(long value) {
+
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private void putInt(int at, int value) {
+
+        buffer[at] = (byte) value;
+        buffer[at + 1] = (byte) (value >>> 8);
+        buffer[at + 2] = (byte) (value >>> 16);
+        buffer[at + 3] = (byte) (value >>> 24);
+    }
+
+    private void ensureCapacity(int bytes) {
+
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.github.srilaxmi.filereader.util;
+
+import com.github.srilaxmi.filereader.dto.FileRow;
+import lombok.experimental.UtilityClass;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@UtilityClass
+public class RowSamplingUtil {
+
+    /**
+     * Reservoir sampling, holds at most sampleSize rows however long the stream is
+     *
+     * @return sampled rows in the order they were emitted, every row when the stream has at most sampleSize rows
+     */
+    public Mono<List<FileRow>> sample(Flux<FileRow> fileRows, Integer sampleSize, Long seed) {
+
+        return Mono.defer(() -> {
+            Reservoir reservoir = new Reservoir(sampleSize, Objects.isNull(seed) ? new Random() : new Random(seed));
+            return fileRows
+                    .doOnNext(reservoir::offer)
+                    .then(Mono.fromCallable(reservoir::getSample));
+        });
+    }
+
+    private static class Reservoir {
+
+        private final Integer sampleSize;
+        private final Random random;
+        private final List<FileRow> rows = new ArrayList<>();
+        private final List<Long> rowNumbers = new ArrayList<>();
+        private long seen;
+
+        private Reservoir(Integer sampleSize, Random random) {
+            this.sampleSize = sampleSize;
+            this.random = random;
+        }
+
+        private void offer(FileRow fileRow) {
+
+            long rowNumber = seen++;
+
+            if (rows.size() < sampleSize) {
+                rows.add(fileRow);
+                rowNumbers.add(rowNumber);
+                return;
+            }
+
+            long slot = (long) (random.nextDouble() * seen);
+
+            if (slot < sampleSize) {
+                rows.set((int) slot, fileRow);
+                rowNumbers.set((int) slot, rowNumber);
+            }
+        }
+
+        private List<FileRow> getSample() {
+
+            return IntStream.range(0, rows.size())
+                    .boxed()
+                    .sorted(Comparator.comparing(rowNumbers::get))
+                    .map(rows::get)
+                    .collect(Collectors.toList());
+        }
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.github.srilaxmi.filereader.util;
+
+import com.github.srilaxmi.filereader.constants.DuplicateDetection;
+import com.github.srilaxmi.filereader.dto.ColumnValidation;
+import com.github.srilaxmi.filereader.dto.FileRow;
+import com.github.srilaxmi.filereader.dto.ValidationError;
+import com.github.srilaxmi.filereader.validations.ValidatorRegistry;
+import lombok.AllArgsConstructor;
+import lombok.experimental.UtilityClass;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static com.github.srilaxmi.filereader.constants.GlobalConstants._ID;
+
+@UtilityClass
+public class RowValidationUtil {
+
+    private static final Object NOT_CONVERTED = new Object();
+
+    /**
+     * Validates every row against the column validations and converts the values of valid rows to their data type.
+     * Rows failing a validation are emitted unchanged with their validation errors set, so they can be quarantined.
+     */
+    public static Flux<FileRow> validateRows(
+            Flux<FileRow> fileRows, List<ColumnValidation> columnValidations, Consumer<FileRow> rejectionListener
+    ) {
+
+        if (Objects.isNull(columnValidations) || columnValidations.isEmpty()) {
+            return fileRows;
+        }
+
+        List<CompiledValidation> validations = new ArrayList<>(columnValidations.size());
+        for (ColumnValidation columnValidation : columnValidations) {
+            validations.add(new CompiledValidation(
+                    columnValidation,
+                    ValidatorRegistry.getValidator(
+                            columnValidation.getDataType(), columnValidation.getValidationRegex(), columnValidation.getStrictCheck())
+            ));
+        }
+
+        return fileRows.doOnNext(fileRow -> {
+            validateRow(fileRow, validations);
+            if (fileRow.isRejected()) {
+                rejectionListener.accept(fileRow);
+            }
+        });
+    }
+
+    /**
+     * Rejects every row whose key was already seen in the stream, the first occurrence is kept.
+     * Rows already rejected by a validation are skipped, as they are not written to the collection.
+     * A BLOOM_FILTER detector cannot tell a duplicate from a false positive, its hits are only passed to
+     * possibleDuplicateListener and the rows are still written.
+     */
+    public static Flux<FileRow> rejectDuplicateKeys(
+            Flux<FileRow> fileRows, DuplicateKeyDetector duplicateKeyDetector, Consumer<FileRow> rejectionListener,
+            Consumer<FileRow> possibleDuplicateListener
+    ) {
+
+        List<String> keyColumns = duplicateKeyDetector.getKeyColumns();
+        String keyColumn = String.join(",", keyColumns);
+        boolean exact = !DuplicateDetection.BLOOM_FILTER.equals(duplicateKeyDetector.getDetection());
+
+        return fileRows.doOnNext(fileRow -> {
+            if (fileRow.isRejected() || !duplicateKeyDetector.isDuplicate(fileRow.getRow())) {
+                return;
+            }
+
+            if (!exact) {
+                possibleDuplicateListener.accept(fileRow);
+                return;
+            }
+
+            fileRow.setValidationErrors(List.of(ValidationError.builder()
+                    .column(keyColumn)
+                    .value(getKeyValue(fileRow.getRow(), keyColumns))
+                    .reason("Key is a duplicate")
+                    .build()));
+            rejectionListener.accept(fileRow);
+        });
+    }
+
+    /**
+     * @return the rejected row with the reasons it failed, as stored in the rejects collection
+     */
+    public static Document toRejectDocument(FileRow fileRow) {
+
+        List<Document> errors = new ArrayList<>(fileRow.getValidationErrors().size());
+
+        for (ValidationError validationError : fileRow.getValidationErrors()) {
+            errors.add(new Document("column", validationError.getColumn())
+                    .append("dataType", Objects.toString(validationError.getDataType(), null))
+                    .append("value", validationError.getValue())
+                    .append("reason", validationError.getReason()));
+        }
+
+        Document rejectDocument = new Document();
+
+        // rows of checkpointed imports carry an _id, their reject keeps it so a resumed import does not quarantine it twice
+        if (fileRow.getRow().containsKey(_ID)) {
+            rejectDocument.put(_ID, fileRow.getRow().get(_ID));
+        }
+
+        return rejectDocument
+                .append("row", fileRow.getRow())
+                .append("errors", errors)
+                .append("sourceOffset", fileRow.getSourceOffset())
+                .append("rejectedAt", new Date());
+    }
+
+    private static void validateRow(FileRow fileRow, List<CompiledValidation> validations) {
+
+        Document row = fileRow.getRow();
+        Object[] convertedValues = new Object[validations.size()];
+        List<ValidationError> validationErrors = null;
+
+        for (int i = 0; i < validations.size(); i++) {
+
+            CompiledValidation validation = validations.get(i);
+            ColumnValidation columnValidation = validation.columnValidation;
+            Object value = row.get(columnValidation.getColumn());
+            convertedValues[i] = NOT_CONVERTED;
+
+            String reason = null;
+
+            if (isBlank(value)) {
+                if (Boolean.TRUE.equals(columnValidation.getRequired())) {
+                    reason = "Value is required";
+                }
+            } else if (!validation.validator.test(value)) {
+                reason = Objects.isNull(columnValidation.getValidationRegex()) ?
+                        "Value is not a valid " + columnValidation.getDataType() :
+                        "Value does not match " + columnValidation.getValidationRegex();
+            } else {
+                try {
+                    convertedValues[i] = columnValidation.getDataType().convert(value);
+                } catch (RuntimeException e) {
+                    reason = "Value could not be converted to " + columnValidation.getDataType() + " : " + e.getMessage();
+                }
+            }
+
+            if (Objects.nonNull(reason)) {
+                if (Objects.isNull(validationErrors)) {
+                    validationErrors = new ArrayList<>(2);
+                }
+                validationErrors.add(getValidationError(columnValidation, value, reason));
+            }
+        }
+
+        if (Objects.nonNull(validationErrors)) {
+            fileRow.setValidationErrors(validationErrors);
+            return;
+        }
+
+        for (int i = 0; i < validations.size(); i++) {
+            if (convertedValues[i] != NOT_CONVERTED) {
+                row.put(validations.get(i).columnValidation.getColumn(), convertedValues[i]);
+            }
+        }
+    }
+
+    private static Object getKeyValue(Document row, List<String> keyColumns) {
+
+        if (keyColumns.size() == 1) {
+            return row.get(keyColumns.get(0));
+        }
+
+        Document keyValue = new Document();
+        for (String keyColumn : keyColumns) {
+            keyValue.append(keyColumn, row.get(keyColumn));
+        }
+
+        return keyValue;
+    }
+
+    private static boolean isBlank(Object value) {
+
+        return value instanceof CharSequence ? StringUtils.isBlank((CharSequence) value) : ObjectUtils.isEmpty(value);
+    }
+
+    private static ValidationError getValidationError(ColumnValidation columnValidation, Object value, String reason) {
+
+        return ValidationError.builder()
+                .column(columnValidation.getColumn())
+                .dataType(columnValidation.getDataType())
+                .value(value)
+                .reason(reason)
+                .build();
+    }
+
+    @AllArgsConstructor
+    private static final class CompiledValidation {
+
+        private final ColumnValidation columnValidation;
+        private final Predicate<Object> validator;
+    }
+
+}
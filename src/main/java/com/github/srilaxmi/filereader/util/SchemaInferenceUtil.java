@@ -0,0 +1,131 @@
+package com.github.srilaxmi.filereader.util;
+
+import com.github.srilaxmi.filereader.constants.DataType;
+import com.github.srilaxmi.filereader.dto.FileRow;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import reactor.core.publisher.Flux;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+@UtilityClass
+@Slf4j
+public class SchemaInferenceUtil {
+
+    public static final Double MIN_AGREEMENT_RATIO = 0.95;
+
+    private static final List<DataType> INFERABLE_DATA_TYPES = List.of(DataType.NUMBER, DataType.BOOLEAN, DataType.DATE);
+    private static final Pattern LEADING_ZERO_PATTERN = Pattern.compile("^[+-]?0\\d");
+
+    /**
+     * Infers the schema from the first sampleSize documents and converts every document with it,
+     * replaying the sampled documents so the stream is read only once
+     */
+    public static Flux<FileRow> applyInferredSchema(Flux<FileRow> fileRows, Integer sampleSize) {
+
+        return applyInferredSchema(fileRows, sampleSize, dataTypeMap -> {});
+    }
+
+    /**
+     * @param schemaListener: receives the inferred data types before any row is converted with them
+     */
+    public static Flux<FileRow> applyInferredSchema(
+            Flux<FileRow> fileRows, Integer sampleSize, Consumer<Map<String, DataType>> schemaListener
+    ) {
+
+        return fileRows
+                .buffer(sampleSize)
+                .switchOnFirst((signal, batches) -> {
+                    Map<String, DataType> dataTypeMap = signal.hasValue() ? inferSchema(getDocuments(signal.get())) : Map.of();
+                    log.info("Inferred data types :: {}", dataTypeMap);
+                    schemaListener.accept(dataTypeMap);
+
+                    return batches
+                            .flatMapIterable(batch -> batch)
+                            .doOnNext(fileRow -> FileParseUtil.convertDocumentValues(fileRow.getRow(), dataTypeMap));
+                });
+    }
+
+    /**
+     * Converts every document with data types inferred earlier, e.g. by the run a resumed import continues
+     */
+    public static Flux<FileRow> applySchema(Flux<FileRow> fileRows, Map<String, DataType> dataTypeMap) {
+
+        return fileRows.doOnNext(fileRow -> FileParseUtil.convertDocumentValues(fileRow.getRow(), dataTypeMap));
+    }
+
+    private static List<Document> getDocuments(List<FileRow> fileRows) {
+
+        List<Document> documents = new ArrayList<>(fileRows.size());
+        for (FileRow fileRow : fileRows) {
+            documents.add(fileRow.getRow());
+        }
+        return documents;
+    }
+
+    /**
+     * Votes on a data type per column. A non-string type wins only when it matches at least
+     * MIN_AGREEMENT_RATIO of the column's non blank values, columns without values are left out.
+     *
+     * @param sample: e.g. the first rows of a file, or a reservoir sample of all of them from FileContentReader.sampleRows
+     */
+    public static Map<String, DataType> inferSchema(List<Document> sample) {
+
+        Map<String, Map<DataType, Integer>> votesByColumn = new LinkedHashMap<>();
+
+        for (Document document : sample) {
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                DataType dataType = inferDataTypeForValue(entry.getValue());
+                if (Objects.nonNull(dataType)) {
+                    votesByColumn
+                            .computeIfAbsent(entry.getKey(), column -> new EnumMap<>(DataType.class))
+                            .merge(dataType, 1, Integer::sum);
+                }
+            }
+        }
+
+        Map<String, DataType> dataTypeMap = new LinkedHashMap<>();
+        votesByColumn.forEach((column, votes) -> dataTypeMap.put(column, getWinningDataType(votes)));
+
+        return dataTypeMap;
+    }
+
+    public static DataType inferDataTypeForValue(Object value) {
+
+        if (Objects.isNull(value) || StringUtils.isBlank(value.toString())) {
+            return null;
+        }
+
+        String stringValue = value.toString().strip();
+
+        // identifiers such as pin codes lose their leading zeroes when stored as numbers
+        if (LEADING_ZERO_PATTERN.matcher(stringValue).find()) {
+            return DataType.STRING;
+        }
+
+        for (DataType dataType : INFERABLE_DATA_TYPES) {
+            if (dataType.isValid(stringValue, null, Boolean.FALSE)) {
+                return dataType;
+            }
+        }
+
+        return DataType.STRING;
+    }
+
+    private static DataType getWinningDataType(Map<DataType, Integer> votes) {
+
+        int totalVotes = votes.values().stream().mapToInt(Integer::intValue).sum();
+
+        return votes.entrySet()
+                .stream()
+                .max(Map.Entry.comparingByValue())
+                .filter(winner -> winner.getValue() >= MIN_AGREEMENT_RATIO * totalVotes)
+                .map(Map.Entry::getKey)
+                .orElse(DataType.STRING);
+    }
+
+}
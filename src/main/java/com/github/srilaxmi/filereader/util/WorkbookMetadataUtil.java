@@ -0,0 +1,664 @@
+package com.github.srilaxmi.filereader.util;
+
+import com.github.srilaxmi.filereader.dto.SheetMetadata;
+import com.github.srilaxmi.filereader.dto.WorkbookMetadata;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.xssf.eventusermodel.XSSFBReader;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads sheet names, dimensions and a header preview from the workbook directory and sheet headers only,
+ * without loading cell data into a workbook model
+ */
+@UtilityClass
+@Slf4j
+public class WorkbookMetadataUtil {
+
+    private static final String XLSX = "XLSX";
+    private static final String XLSB = "XLSB";
+    private static final String XLS = "XLS";
+    private static final String ZIP = "ZIP";
+
+    private static final String ROOT_RELS = "_rels/.rels";
+    private static final String OFFICE_DOCUMENT_REL = "/officeDocument";
+    private static final String SHARED_STRINGS_REL = "/sharedStrings";
+
+    private static final String XLS_WORKBOOK_STREAM = "Workbook";
+    private static final int XLS_BOUNDSHEET_SID = 0x0085;
+    private static final int XLS_DIMENSIONS_SID = 0x0200;
+    private static final int XLS_FILEPASS_SID = 0x002F;
+    private static final int XLS_EOF_SID = 0x000A;
+
+    private static final int XLSB_BEGIN_SHEET_DATA = 145;
+    private static final int XLSB_WS_DIM = 148;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    /**
+     * @return metadata of the workbook, or of every workbook entry when the file is a zip archive
+     */
+    public static List<WorkbookMetadata> getMetadata(String path) throws IOException {
+
+        File file = new File(path);
+
+        if (ZIP.equals(getExtension(file.getName()))) {
+            return getZipMetadata(file);
+        }
+
+        return List.of(getWorkbookMetadata(file, file.getName()));
+    }
+
+    public static WorkbookMetadata getWorkbookMetadata(File file, String fileName) throws IOException {
+
+        List<SheetMetadata> sheets;
+
+        switch (getExtension(fileName)) {
+            case XLSX:
+                sheets = readXlsxSheets(file);
+                break;
+            case XLSB:
+                sheets = readXlsbSheets(file);
+                break;
+            case XLS:
+                sheets = readXlsSheets(file);
+                break;
+            default:
+                throw new IllegalArgumentException("Not a workbook : " + fileName);
+        }
+
+        return WorkbookMetadata.builder()
+                .fileName(fileName)
+                .sheets(sheets)
+                .build();
+    }
+
+    public static Boolean isWorkbook(String fileName) {
+
+        String extension = getExtension(fileName);
+        return XLSX.equals(extension) || XLSB.equals(extension) || XLS.equals(extension);
+    }
+
+    /**
+     * Workbook entries are copied to a temp file one at a time, as the zip and compound file formats need random access
+     */
+    private static List<WorkbookMetadata> getZipMetadata(File file) throws IOException {
+
+        List<WorkbookMetadata> workbooks = new ArrayList<>();
+
+        try (ZipFile zipFile = new ZipFile(file)) {
+
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+
+            while (entries.hasMoreElements()) {
+
+                ZipEntry zipEntry = entries.nextElement();
+                String fileName = FilenameUtils.getName(zipEntry.getName());
+
+                if (zipEntry.isDirectory() || !isWorkbook(fileName)) {
+                    continue;
+                }
+
+                Path entryPath = Files.createTempFile("", "-" + fileName);
+
+                try {
+                    try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+                        Files.copy(inputStream, entryPath, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    workbooks.add(getWorkbookMetadata(entryPath.toFile(), zipEntry.getName()));
+                } finally {
+                    Files.deleteIfExists(entryPath);
+                }
+            }
+        }
+
+        log.info("{} :: Read metadata of {} workbooks", file.getName(), workbooks.size());
+        return workbooks;
+    }
+
+    /**
+     * Sheet names come from xl/workbook.xml, counts from each sheet's dimension element and headers from its first row.
+     * Shared strings are only read up to the largest index the header rows reference.
+     */
+    private static List<SheetMetadata> readXlsxSheets(File file) throws IOException {
+
+        try (ZipFile zipFile = new ZipFile(file)) {
+
+            String workbookPart = getRelationshipTargets(zipFile, "", ROOT_RELS).get(OFFICE_DOCUMENT_REL).get(0);
+            String workbookDir = workbookPart.contains("/") ? workbookPart.substring(0, workbookPart.lastIndexOf('/') + 1) : "";
+            String workbookRels = workbookDir + "_rels/" + FilenameUtils.getName(workbookPart) + ".rels";
+
+            Map<String, String> sheetPartsById = getRelationshipTargetsById(zipFile, workbookDir, workbookRels);
+            List<SheetMetadata> sheets = new ArrayList<>();
+            List<List<Object>> headerCells = new ArrayList<>();
+            Set<Integer> sharedStringIndexes = new HashSet<>();
+
+            for (Map.Entry<String, String> sheet : getSheetRelationshipIds(zipFile, workbookPart).entrySet()) {
+
+                SheetMetadata sheetMetadata = SheetMetadata.builder().name(sheet.getKey()).build();
+                List<Object> cells = new ArrayList<>();
+                String sheetPart = sheetPartsById.get(sheet.getValue());
+                ZipEntry sheetEntry = Objects.isNull(sheetPart) ? null : zipFile.getEntry(sheetPart);
+
+                if (Objects.nonNull(sheetEntry)) {
+                    readXlsxSheetHeader(zipFile, sheetEntry, sheetMetadata, cells);
+                }
+
+                cells.stream().filter(Integer.class::isInstance).map(Integer.class::cast).forEach(sharedStringIndexes::add);
+                sheets.add(sheetMetadata);
+                headerCells.add(cells);
+            }
+
+            List<String> sharedStringParts = getRelationshipTargets(zipFile, workbookDir, workbookRels)
+                    .getOrDefault(SHARED_STRINGS_REL, List.of());
+            Map<Integer, String> sharedStrings = sharedStringIndexes.isEmpty() || sharedStringParts.isEmpty() ?
+                    Map.of() :
+                    readSharedStrings(zipFile, sharedStringParts.get(0), sharedStringIndexes);
+
+            for (int i = 0; i < sheets.size(); i++) {
+                List<String> headers = new ArrayList<>(headerCells.get(i).size());
+                for (Object cell : headerCells.get(i)) {
+                    String value = cell instanceof Integer ? sharedStrings.get(cell) : (String) cell;
+                    headers.add(Objects.isNull(value) ? "" : FileParseUtil.replaceNewlinesAndStrip(value));
+                }
+                sheets.get(i).setHeaders(headers);
+            }
+
+            return sheets;
+
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid workbook xml in " + file.getName(), e);
+        }
+    }
+
+    /**
+     * @param cells: filled with the first row's values by column, literal values as String and shared strings as their Integer index
+     */
+    private static void readXlsxSheetHeader(
+            ZipFile zipFile, ZipEntry sheetEntry, SheetMetadata sheetMetadata, List<Object> cells
+    ) throws IOException, XMLStreamException {
+
+        try (InputStream inputStream = zipFile.getInputStream(sheetEntry)) {
+
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            boolean inRow = false;
+            int column = -1;
+            String cellType = null;
+
+            try {
+                while (reader.hasNext()) {
+
+                    int event = reader.next();
+
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        String localName = reader.getLocalName();
+                        if ("row".equals(localName) || "sheetData".equals(localName)) {
+                            return;
+                        }
+                        continue;
+                    }
+
+                    if (event != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+
+                    switch (reader.getLocalName()) {
+                        case "dimension":
+                            setDimension(sheetMetadata, reader.getAttributeValue(null, "ref"));
+                            break;
+                        case "row":
+                            inRow = true;
+                            break;
+                        case "c":
+                            String cellReference = reader.getAttributeValue(null, "r");
+                            column = Objects.isNull(cellReference) ? column + 1 : getColumnIndex(cellReference);
+                            cellType = reader.getAttributeValue(null, "t");
+                            break;
+                        case "v":
+                            if (inRow) {
+                                setCell(cells, column, getCellValue(cellType, reader.getElementText()));
+                            }
+                            break;
+                        case "t":
+                            if (inRow && "inlineStr".equals(cellType)) {
+                                Object previous = column < cells.size() ? cells.get(column) : null;
+                                setCell(cells, column, Objects.toString(previous, "") + reader.getElementText());
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static Object getCellValue(String cellType, String value) {
+
+        if ("s".equals(cellType)) {
+            return Integer.valueOf(value.strip());
+        } else if ("b".equals(cellType)) {
+            return "1".equals(value.strip()) ? "TRUE" : "FALSE";
+        }
+
+        return value;
+    }
+
+    private static Map<Integer, String> readSharedStrings(
+            ZipFile zipFile, String sharedStringsPart, Set<Integer> indexes
+    ) throws IOException, XMLStreamException {
+
+        ZipEntry entry = zipFile.getEntry(sharedStringsPart);
+        Map<Integer, String> sharedStrings = new HashMap<>();
+
+        if (Objects.isNull(entry)) {
+            return sharedStrings;
+        }
+
+        int maxIndex = Collections.max(indexes);
+
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            int index = -1;
+            int phoneticDepth = 0;
+            StringBuilder text = new StringBuilder();
+
+            try {
+                while (reader.hasNext() && index <= maxIndex) {
+
+                    int event = reader.next();
+
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (reader.getLocalName()) {
+                            case "si":
+                                index++;
+                                text.setLength(0);
+                                break;
+                            case "rPh":
+                                phoneticDepth++;
+                                break;
+                            case "t":
+                                if (phoneticDepth == 0 && indexes.contains(index)) {
+                                    text.append(reader.getElementText());
+                                }
+                                break;
+                            default:
+                                break;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if ("rPh".equals(reader.getLocalName())) {
+                            phoneticDepth--;
+                        } else if ("si".equals(reader.getLocalName()) && indexes.contains(index)) {
+                            sharedStrings.put(index, text.toString());
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        return sharedStrings;
+    }
+
+    /**
+     * @return sheet name to relationship id, in workbook order
+     */
+    private static Map<String, String> getSheetRelationshipIds(ZipFile zipFile, String workbookPart) throws IOException, XMLStreamException {
+
+        Map<String, String> sheets = new LinkedHashMap<>();
+
+        try (InputStream inputStream = zipFile.getInputStream(getRequiredEntry(zipFile, workbookPart))) {
+
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT && "sheet".equals(reader.getLocalName())) {
+                        sheets.put(reader.getAttributeValue(null, "name"), getRelationshipIdAttribute(reader));
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "sheets".equals(reader.getLocalName())) {
+                        break;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        return sheets;
+    }
+
+    private static String getRelationshipIdAttribute(XMLStreamReader reader) {
+
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if ("id".equals(reader.getAttributeLocalName(i)) && Objects.nonNull(namespace) && !namespace.isEmpty()) {
+                return reader.getAttributeValue(i);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return part names keyed by the suffix of the relationship type, e.g. /worksheet
+     */
+    private static Map<String, List<String>> getRelationshipTargets(ZipFile zipFile, String baseDir, String relsPart) throws IOException, XMLStreamException {
+
+        Map<String, List<String>> targets = new HashMap<>();
+        readRelationships(zipFile, baseDir, relsPart, (id, type, target) ->
+                targets.computeIfAbsent(type.substring(type.lastIndexOf('/')), k -> new ArrayList<>()).add(target));
+
+        return targets;
+    }
+
+    private static Map<String, String> getRelationshipTargetsById(ZipFile zipFile, String baseDir, String relsPart) throws IOException, XMLStreamException {
+
+        Map<String, String> targets = new HashMap<>();
+        readRelationships(zipFile, baseDir, relsPart, (id, type, target) -> targets.put(id, target));
+
+        return targets;
+    }
+
+    private static void readRelationships(
+            ZipFile zipFile, String baseDir, String relsPart, RelationshipConsumer consumer
+    ) throws IOException, XMLStreamException {
+
+        try (InputStream inputStream = zipFile.getInputStream(getRequiredEntry(zipFile, relsPart))) {
+
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(reader.getLocalName())
+                            && !"External".equals(reader.getAttributeValue(null, "TargetMode"))) {
+                        consumer.accept(
+                                reader.getAttributeValue(null, "Id"),
+                                reader.getAttributeValue(null, "Type"),
+                                resolvePartName(baseDir, reader.getAttributeValue(null, "Target"))
+                        );
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static String resolvePartName(String baseDir, String target) {
+
+        String path = URI.create("/" + baseDir).resolve(target).normalize().getPath();
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private static ZipEntry getRequiredEntry(ZipFile zipFile, String partName) throws IOException {
+
+        ZipEntry entry = zipFile.getEntry(partName);
+
+        if (Objects.isNull(entry)) {
+            throw new IOException("Missing workbook part : " + partName);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Sheet names come from the workbook part, counts from the BrtWsDim record leading each sheet part
+     */
+    private static List<SheetMetadata> readXlsbSheets(File file) throws IOException {
+
+        OPCPackage opcPackage = null;
+
+        try {
+            opcPackage = OPCPackage.open(file, PackageAccess.READ);
+            XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) new XSSFBReader(opcPackage).getSheetsData();
+            List<SheetMetadata> sheets = new ArrayList<>();
+
+            while (sheetIterator.hasNext()) {
+                try (InputStream inputStream = sheetIterator.next()) {
+                    SheetMetadata sheetMetadata = SheetMetadata.builder().name(sheetIterator.getSheetName()).build();
+                    readXlsbDimension(inputStream, sheetMetadata);
+                    sheets.add(sheetMetadata);
+                }
+            }
+
+            return sheets;
+
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Unable to read workbook " + file.getName(), e);
+        } finally {
+            if (Objects.nonNull(opcPackage)) {
+                opcPackage.revert();
+            }
+        }
+    }
+
+    private static void readXlsbDimension(InputStream inputStream, SheetMetadata sheetMetadata) throws IOException {
+
+        int recordType;
+
+        while ((recordType = readXlsbRecordType(inputStream)) >= 0 && recordType != XLSB_BEGIN_SHEET_DATA) {
+
+            int recordSize = readXlsbRecordSize(inputStream);
+
+            if (recordType != XLSB_WS_DIM) {
+                IOUtils.skipFully(inputStream, recordSize);
+                continue;
+            }
+
+            byte[] dimension = inputStream.readNBytes(recordSize);
+            if (dimension.length >= 16) {
+                sheetMetadata.setRowCount(readInt(dimension, 4) + 1);
+                sheetMetadata.setColumnCount(readInt(dimension, 12) + 1);
+            }
+            return;
+        }
+    }
+
+    private static int readXlsbRecordType(InputStream inputStream) throws IOException {
+
+        int first = inputStream.read();
+
+        if (first < 0 || (first & 0x80) == 0) {
+            return first;
+        }
+
+        return (first & 0x7F) | ((inputStream.read() & 0x7F) << 7);
+    }
+
+    private static int readXlsbRecordSize(InputStream inputStream) throws IOException {
+
+        int size = 0;
+
+        for (int i = 0; i < 4; i++) {
+            int next = inputStream.read();
+            size |= (next & 0x7F) << (7 * i);
+            if ((next & 0x80) == 0) {
+                break;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Walks the BIFF8 record headers of the globals substream for BOUNDSHEET records, then jumps to each sheet's
+     * substream for its DIMENSIONS record. Cell records and the shared string table are never decoded.
+     */
+    private static List<SheetMetadata> readXlsSheets(File file) throws IOException {
+
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(file, true)) {
+
+            List<SheetMetadata> sheets = new ArrayList<>();
+            List<Integer> sheetOffsets = new ArrayList<>();
+
+            try (DocumentInputStream inputStream = fileSystem.createDocumentInputStream(XLS_WORKBOOK_STREAM)) {
+
+                while (inputStream.available() >= 4) {
+
+                    int sid = inputStream.readUShort();
+                    byte[] data = new byte[inputStream.readUShort()];
+                    inputStream.readFully(data);
+
+                    if (sid == XLS_FILEPASS_SID) {
+                        throw new IOException("Encrypted workbook : " + file.getName());
+                    } else if (sid == XLS_BOUNDSHEET_SID) {
+                        sheetOffsets.add(readInt(data, 0));
+                        sheets.add(SheetMetadata.builder().name(readBoundSheetName(data)).build());
+                    } else if (sid == XLS_EOF_SID) {
+                        break;
+                    }
+                }
+            }
+
+            for (int i = 0; i < sheets.size(); i++) {
+                try (DocumentInputStream inputStream = fileSystem.createDocumentInputStream(XLS_WORKBOOK_STREAM)) {
+                    IOUtils.skipFully(inputStream, sheetOffsets.get(i));
+                    readXlsDimension(inputStream, sheets.get(i));
+                }
+            }
+
+            return sheets;
+        }
+    }
+
+    private static void readXlsDimension(DocumentInputStream inputStream, SheetMetadata sheetMetadata) throws IOException {
+
+        while (inputStream.available() >= 4) {
+
+            int sid = inputStream.readUShort();
+            int length = inputStream.readUShort();
+
+            if (sid == XLS_DIMENSIONS_SID && length >= 12) {
+                inputStream.readInt();
+                sheetMetadata.setRowCount(inputStream.readInt());
+                inputStream.readUShort();
+                sheetMetadata.setColumnCount(inputStream.readUShort());
+                return;
+            } else if (sid == XLS_EOF_SID) {
+                return;
+            }
+
+            IOUtils.skipFully(inputStream, length);
+        }
+    }
+
+    /**
+     * BoundSheet8: lbPlyPos (4), hsState (1), dt (1), then a ShortXLUnicodeString of cch (1), fHighByte (1) and the characters
+     */
+    private static String readBoundSheetName(byte[] data) {
+
+        int length = data[6] & 0xFF;
+        boolean highByte = (data[7] & 0x01) != 0;
+
+        return highByte ?
+                new String(data, 8, length * 2, StandardCharsets.UTF_16LE) :
+                new String(data, 8, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void setDimension(SheetMetadata sheetMetadata, String reference) {
+
+        if (Objects.isNull(reference) || reference.isBlank()) {
+            return;
+        }
+
+        String[] corners = reference.split(":");
+        String last = corners[corners.length - 1];
+
+        sheetMetadata.setRowCount(getRowNumber(last));
+        sheetMetadata.setColumnCount(getColumnIndex(last) + 1);
+    }
+
+    private static int getColumnIndex(String cellReference) {
+
+        int column = 0;
+
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                column = column * 26 + (c - 'A' + 1);
+            } else if (c != '$') {
+                break;
+            }
+        }
+
+        return column - 1;
+    }
+
+    private static int getRowNumber(String cellReference) {
+
+        int row = 0;
+
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c >= '0' && c <= '9') {
+                row = row * 10 + (c - '0');
+            }
+        }
+
+        return row;
+    }
+
+    private static void setCell(List<Object> cells, int column, Object value) {
+
+        while (cells.size() <= column) {
+            cells.add(null);
+        }
+
+        cells.set(column, value);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    private static String getExtension(String fileName) {
+
+        return FilenameUtils.getExtension(fileName).toUpperCase(Locale.ROOT);
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return factory;
+    }
+
+    @FunctionalInterface
+    private interface RelationshipConsumer {
+
+        void accept(String id, String type, String target);
+    }
+
+}
@@ -1,9 +1,5 @@
 package com.github.srilaxmi.filereader.validations;
 
-import org.springframework.util.CollectionUtils;
-
-import java.util.List;
-
 public class BooleanValidator implements Validator{
 
     @Override
@@ -11,7 +7,7 @@ public class BooleanValidator implements Validator{
 
         try {
             if (strictCheck) {
-                return CollectionUtils.containsAny(List.of(true, false, Boolean.TRUE, Boolean.FALSE), List.of(object));
+                return object instanceof Boolean;
             } else {
                 return "TRUE".equalsIgnoreCase(object.toString()) || "FALSE".equalsIgnoreCase(object.toString());
             }
@@ -2,15 +2,15 @@ package com.github.srilaxmi.filereader.validations;
 
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.Objects;
 
 public class DateValidator implements Validator {
-    private static DateTimeFormatter dateTimeFormatter;
+
+    private final DateTimeFormatter dateTimeFormatter;
 
     public DateValidator(DateTimeFormatter dateTimeFormatter) {
-        DateValidator.dateTimeFormatter = dateTimeFormatter;
+        this.dateTimeFormatter = dateTimeFormatter;
     }
 
     @Override
@@ -31,12 +31,9 @@ public class DateValidator implements Validator {
     }
 
     private void isValueValidDate(Object value) {
-        try {
-            String valueString = Objects.toString(value, "");
-            Date.from(Instant.from(DateTimeFormatter.ISO_INSTANT.parse(valueString)));
-        } catch (DateTimeParseException e) {
-            throw new RuntimeException("Failed to parse ISO_INSTANT string to Date: " + e.getMessage());
-        }
+        String valueString = Objects.toString(value, "");
+        DateTimeFormatter formatter = Objects.requireNonNullElse(dateTimeFormatter, DateTimeFormatter.ISO_INSTANT);
+        Date.from(Instant.from(formatter.parse(valueString)));
     }
 
 }
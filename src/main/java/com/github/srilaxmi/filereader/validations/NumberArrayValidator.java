@@ -13,8 +13,15 @@ public class NumberArrayValidator implements Validator {
         try {
             if (object instanceof List) {
                 List<?> values = (List<?>) object;
-                return !values.isEmpty() &&
-                        values.stream().allMatch(value -> isValueNumberType(value, strictCheck));
+                if (values.isEmpty()) {
+                    return false;
+                }
+                for (Object value : values) {
+                    if (!isValueNumberType(value, strictCheck)) {
+                        return false;
+                    }
+                }
+                return true;
             } else if (!strictCheck) {
                 strictConvertToNumberArray(object);
                 return true;
@@ -3,29 +3,25 @@ package com.github.srilaxmi.filereader.validations;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static com.github.srilaxmi.filereader.util.DataTypeUtil.isValueNumberType;
 
 public class NumberValidator implements Validator {
 
-    protected String dataTypeFormat;
+    protected final String dataTypeFormat;
+
+    private final RegexFinder regexFinder;
 
     public NumberValidator(String dataTypeFormat) {
 
         this.dataTypeFormat = dataTypeFormat;
+        this.regexFinder = StringUtils.isEmpty(dataTypeFormat) ? null : new RegexFinder(dataTypeFormat);
     }
 
     public boolean isValid(Object object, Boolean strictCheck) {
 
-        if (!StringUtils.isEmpty(dataTypeFormat) && Objects.nonNull(object)) {
-
-            String value = object.toString();
-            Pattern p = Pattern.compile(dataTypeFormat);
-            Matcher m = p.matcher(value);
-            return m.find();
-
+        if (Objects.nonNull(regexFinder) && Objects.nonNull(object)) {
+            return regexFinder.find(object.toString());
         } else {
             return isValueNumberType(object, strictCheck);
         }
@@ -0,0 +1,22 @@
+package com.github.srilaxmi.filereader.validations;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled validation regex with a matcher per thread that is reset for every value instead of being rebuilt
+ */
+final class RegexFinder {
+
+    private final ThreadLocal<Matcher> matchers;
+
+    RegexFinder(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        this.matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+    }
+
+    boolean find(CharSequence value) {
+        return matchers.get().reset(value).find();
+    }
+
+}
@@ -14,8 +14,15 @@ public class StringArrayValidator implements Validator {
         try {
             if (object instanceof List) {
                 List<?> values = (List<?>) object;
-                return !values.isEmpty() &&
-                        values.stream().allMatch(value -> isValueStringType(value, strictCheck));
+                if (values.isEmpty()) {
+                    return false;
+                }
+                for (Object value : values) {
+                    if (!isValueStringType(value, strictCheck)) {
+                        return false;
+                    }
+                }
+                return true;
             } else if (!strictCheck) {
                 strictConvertToStringArray(object);
                 return true;
@@ -0,0 +1,79 @@
+package com.github.srilaxmi.filereader.validations;
+
+import com.github.srilaxmi.filereader.constants.DataType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Holds one validator per (DataType, regex), bound to each strictness. Validators are immutable once built,
+ * so a cached instance is shared by every thread and looking it up again does not allocate.
+ * Regexes come from clients, so only the first MAX_CACHED_REGEXES of each data type are cached.
+ */
+public final class ValidatorRegistry {
+
+    private static final Integer MAX_CACHED_REGEXES = 256;
+
+    private static final Map<DataType, CachedValidators> VALIDATORS = new EnumMap<>(DataType.class);
+
+    static {
+        for (DataType dataType : DataType.values()) {
+            VALIDATORS.put(dataType, new CachedValidators(dataType));
+        }
+    }
+
+    private ValidatorRegistry() {
+    }
+
+    /**
+     * Column validation should fetch the validator once per column and test every cell with it
+     */
+    public static Predicate<Object> getValidator(DataType dataType, String validationRegex, Boolean strictCheck) {
+
+        return VALIDATORS.get(dataType).get(validationRegex, Boolean.TRUE.equals(strictCheck));
+    }
+
+    private static final class CachedValidators {
+
+        private final DataType dataType;
+        private final BoundValidators withoutRegex;
+        private final Map<String, BoundValidators> withRegex = new ConcurrentHashMap<>();
+
+        private CachedValidators(DataType dataType) {
+            this.dataType = dataType;
+            this.withoutRegex = new BoundValidators(dataType.createValidator(null));
+        }
+
+        private Predicate<Object> get(String validationRegex, boolean strictCheck) {
+
+            BoundValidators validators = withoutRegex;
+
+            if (Objects.nonNull(validationRegex)) {
+                validators = withRegex.get(validationRegex);
+                if (Objects.isNull(validators)) {
+                    // past the limit validators are built per lookup, which column validation does once per column
+                    validators = withRegex.size() < MAX_CACHED_REGEXES ?
+                            withRegex.computeIfAbsent(validationRegex, regex -> new BoundValidators(dataType.createValidator(regex))) :
+                            new BoundValidators(dataType.createValidator(validationRegex));
+                }
+            }
+
+            return strictCheck ? validators.strict : validators.lenient;
+        }
+    }
+
+    private static final class BoundValidators {
+
+        private final Predicate<Object> strict;
+        private final Predicate<Object> lenient;
+
+        private BoundValidators(Validator validator) {
+            this.strict = value -> validator.isValid(value, Boolean.TRUE);
+            this.lenient = value -> validator.isValid(value, Boolean.FALSE);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.github.srilaxmi.filereader.service;
+
+import com.github.srilaxmi.filereader.dto.FileRow;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappedCsvFileReaderTest {
+
+    private static final String CSV = "id,note\r\n" +
+            "1,\"first\r\nsecond\"\r\n" +
+            "2,\"say \"\"hi\"\", then \"\"bye\"\"\"\n" +
+            "\n" +
+            " , \r\n" +
+            "\"\",\"  \"\n" +
+            "3,\"a,b\nc\"\r" +
+            "4,plain";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsQuotedLineBreaksEscapedQuotesAndSkipsBlankRows() throws IOException {
+
+        List<FileRow> fileRows = readAll(CSV, 1024L);
+
+        assertEquals(List.of("1", "2", "3", "4"), getValues(fileRows, "id"));
+        assertEquals(List.of("first\r\nsecond", "say \"hi\", then \"bye\"", "a,b\nc", "plain"), getValues(fileRows, "note"));
+    }
+
+    @Test
+    void splitsSegmentsOnRecordBoundariesOnly() throws IOException {
+
+        List<FileRow> expected = readAll(CSV, 1024L);
+
+        // every segment size ends its first segment inside a different field, including inside quoted values
+        for (long segmentBytes = 1; segmentBytes < CSV.length(); segmentBytes++) {
+            List<FileRow> fileRows = readAll(CSV, segmentBytes);
+            assertEquals(getValues(expected, "id"), getValues(fileRows, "id"), "segment bytes " + segmentBytes);
+            assertEquals(getValues(expected, "note"), getValues(fileRows, "note"), "segment bytes " + segmentBytes);
+        }
+    }
+
+    @Test
+    void reportsOffsetsPastEachRow() throws IOException {
+
+        List<FileRow> fileRows = readAll(CSV, 8L);
+        byte[] bytes = CSV.getBytes(Charset.defaultCharset());
+
+        assertEquals(List.of(
+                (long) CSV.indexOf("2,"),
+                (long) CSV.indexOf("\n\n") + 1,
+                (long) CSV.indexOf("4,"),
+                (long) bytes.length
+        ), fileRows.stream().map(FileRow::getSourceOffset).collect(Collectors.toList()));
+    }
+
+    @Test
+    void skipsRowsWithoutCountingBlankRecords() throws IOException {
+
+        MappedCsvFileReader reader = createReader(CSV, 4L);
+        reader.skipRows(2L, null).block();
+
+        assertEquals(List.of("3", "4"), getValues(reader.getAllRows().collectList().block(), "id"));
+    }
+
+    @Test
+    void resumesFromSourceOffset() throws IOException {
+
+        MappedCsvFileReader reader = createReader(CSV, 4L);
+        reader.skipRows(null, (long) CSV.indexOf("3,")).block();
+
+        assertEquals(List.of("3", "4"), getValues(reader.getAllRows().collectList().block(), "id"));
+    }
+
+    @Test
+    void readsRowRangesThroughTheRowIndex() throws IOException {
+
+        String csv = "id,note\n" + IntStream.range(0, 2500)
+                .mapToObj(i -> i % 7 == 0 ? i + ",\"line\r\n" + i + "\"\n\n" : i + ",\"\"\"" + i + "\"\"\"\n")
+                .collect(Collectors.joining());
+        Path path = write(csv);
+
+        for (long offset : List.of(0L, 999L, 1000L, 1001L, 2497L, 1500L)) {
+
+            MappedCsvFileReader reader = createReader(path, 1024L);
+            List<FileRow> fileRows = reader.getRows(offset, 3L).collectList().block();
+
+            List<String> expected = IntStream.range((int) offset, (int) Math.min(offset + 3, 2500))
+                    .mapToObj(String::valueOf)
+                    .collect(Collectors.toList());
+            assertEquals(expected, getValues(fileRows, "id"), "offset " + offset);
+        }
+    }
+
+    private List<FileRow> readAll(String csv, Long segmentBytes) throws IOException {
+
+        return createReader(csv, segmentBytes).getAllRows().collectList().block();
+    }
+
+    private MappedCsvFileReader createReader(String csv, Long segmentBytes) throws IOException {
+
+        return createReader(write(csv), segmentBytes);
+    }
+
+    private MappedCsvFileReader createReader(Path path, Long segmentBytes) {
+
+        MappedCsvFileReader reader = new MappedCsvFileReader(Schedulers.immediate(), 4, segmentBytes);
+        reader.initialize(path.toString(), null).block();
+
+        return reader;
+    }
+
+    private Path write(String csv) throws IOException {
+
+        return Files.write(Files.createTempFile(tempDir, "rows", ".csv"), csv.getBytes(Charset.defaultCharset()));
+    }
+
+    private static List<String> getValues(List<FileRow> fileRows, String field) {
+
+        return fileRows.stream()
+                .map(FileRow::getRow)
+                .map(row -> row.get(field, Object.class))
+                .map(String::valueOf)
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.github.srilaxmi.filereader.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CsvRowIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void keepsTheIndexOfAFileWrittenAgainWithTheSameContent() throws IOException {
+
+        Path path = tempDir.resolve("rows.csv");
+        byte[] content = ("id\n" + "1\n".repeat(100_000)).getBytes(StandardCharsets.UTF_8);
+
+        Files.write(path, content);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+        CsvRowIndex rowIndex = CsvRowIndex.forFile(path.toString(), "test");
+
+        Files.write(path, content);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2024-01-02T00:00:00Z")));
+
+        assertSame(rowIndex, CsvRowIndex.forFile(path.toString(), "test"));
+        assertNotSame(rowIndex, CsvRowIndex.forFile(path.toString(), "other"));
+    }
+
+    @Test
+    void startsANewIndexWhenTheContentChanges() throws IOException {
+
+        Path path = tempDir.resolve("rows.csv");
+        byte[] content = ("id\n" + "1\n".repeat(100_000)).getBytes(StandardCharsets.UTF_8);
+
+        Files.write(path, content);
+        CsvRowIndex rowIndex = CsvRowIndex.forFile(path.toString(), "test");
+
+        content[content.length - 2] = '2';
+        Files.write(path, content);
+
+        assertNotSame(rowIndex, CsvRowIndex.forFile(path.toString(), "test"));
+    }
+
+}
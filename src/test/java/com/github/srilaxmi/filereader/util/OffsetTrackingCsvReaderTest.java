@@ -0,0 +1,104 @@
+package com.github.srilaxmi.filereader.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OffsetTrackingCsvReaderTest {
+
+    private static final String CSV = "id,note\r\n" +
+            "1,\"first\r\nsecond\"\r\n" +
+            "2,\"say \"\"hi\"\"\"\n" +
+            "3,\"a\nb\nc\"\r" +
+            "4,plain\n";
+
+    private static final byte[] BYTES = CSV.getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void readsMultiLineAndEscapedValues() throws IOException {
+
+        try (OffsetTrackingCsvReader reader = new OffsetTrackingCsvReader(new ByteArrayInputStream(BYTES), 0)) {
+
+            assertArrayEquals(new String[]{"id", "note"}, reader.readNext());
+            assertArrayEquals(new String[]{"1", "first\nsecond"}, reader.readNext());
+            assertArrayEquals(new String[]{"2", "say \"hi\""}, reader.readNext());
+            assertArrayEquals(new String[]{"3", "a\nb\nc"}, reader.readNext());
+            assertArrayEquals(new String[]{"4", "plain"}, reader.readNext());
+            assertNull(reader.readNext());
+            assertEquals(BYTES.length, reader.getOffset());
+        }
+    }
+
+    @Test
+    void reportsOffsetsPastEachRecord() throws IOException {
+
+        List<Long> offsets = readOffsets(new ByteArrayInputStream(BYTES), 0);
+
+        assertEquals(List.of(
+                (long) CSV.indexOf("2,"),
+                (long) CSV.indexOf("3,"),
+                (long) CSV.indexOf("4,"),
+                (long) BYTES.length
+        ), offsets);
+    }
+
+    @Test
+    void resumesFromOffsetAfterMultiLineRecord() throws IOException {
+
+        for (String next : List.of("2,", "3,", "4,")) {
+
+            int resumeOffset = CSV.indexOf(next);
+            InputStream inputStream = new ByteArrayInputStream(BYTES, resumeOffset, BYTES.length - resumeOffset);
+
+            try (OffsetTrackingCsvReader reader = new OffsetTrackingCsvReader(inputStream, resumeOffset)) {
+                assertEquals(next.substring(0, 1), reader.readNext()[0]);
+            }
+
+            List<Long> resumedOffsets = readOffsets(new ByteArrayInputStream(BYTES, resumeOffset, BYTES.length - resumeOffset), resumeOffset);
+            List<Long> offsets = readOffsets(new ByteArrayInputStream(BYTES), 0);
+            assertEquals(offsets.subList(offsets.size() - resumedOffsets.size(), offsets.size()), resumedOffsets);
+        }
+    }
+
+    @Test
+    void readsRecordsLongerThanTheBuffer() throws IOException {
+
+        String value = "x".repeat(200 * 1024);
+        byte[] bytes = ("a,b\n1,\"" + value + "\r\n" + value + "\"\n2,3").getBytes(StandardCharsets.UTF_8);
+
+        try (OffsetTrackingCsvReader reader = new OffsetTrackingCsvReader(new ByteArrayInputStream(bytes), 0)) {
+
+            reader.readNext();
+            assertEquals(value + "\n" + value, reader.readNext()[1]);
+            assertArrayEquals(new String[]{"2", "3"}, reader.readNext());
+            assertEquals(bytes.length, reader.getOffset());
+        }
+    }
+
+    /**
+     * @return offset after every record following the first one read
+     */
+    private static List<Long> readOffsets(InputStream inputStream, long startOffset) throws IOException {
+
+        List<Long> offsets = new ArrayList<>();
+
+        try (OffsetTrackingCsvReader reader = new OffsetTrackingCsvReader(inputStream, startOffset)) {
+            reader.readNext();
+            while (reader.readNext() != null) {
+                offsets.add(reader.getOffset());
+            }
+        }
+
+        return offsets;
+    }
+
+}
@@ -0,0 +1,265 @@
+package com.github.srilaxmi.filereader.util;
+
+import com.github.srilaxmi.filereader.dto.SheetMetadata;
+import com.github.srilaxmi.filereader.dto.WorkbookMetadata;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WorkbookMetadataUtilTest {
+
+    private static final String RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final int BRT_BEGIN_SHEET = 129;
+    private static final int BRT_BEGIN_BOOK = 131;
+    private static final int BRT_END_BOOK = 132;
+    private static final int BRT_BEGIN_SHEET_DATA = 145;
+    private static final int BRT_END_SHEET_DATA = 146;
+    private static final int BRT_WS_PROP = 147;
+    private static final int BRT_WS_DIM = 148;
+    private static final int BRT_BEGIN_BUNDLE_SHS = 143;
+    private static final int BRT_END_BUNDLE_SHS = 144;
+    private static final int BRT_BUNDLE_SH = 156;
+    private static final int BRT_END_SHEET = 130;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsXlsxSheetNamesDimensionsAndHeaders() throws IOException {
+
+        Path path = tempDir.resolve("sheets.xlsx");
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream outputStream = Files.newOutputStream(path)) {
+            Sheet people = workbook.createSheet("People");
+            Row header = people.createRow(0);
+            header.createCell(0).setCellValue("Name");
+            header.createCell(1).setCellValue(" Email\nAddress ");
+            header.createCell(3).setCellValue(true);
+            fill(people, 1, 12, 4);
+            workbook.createSheet("Empty");
+            workbook.write(outputStream);
+        }
+
+        WorkbookMetadata metadata = WorkbookMetadataUtil.getMetadata(path.toString()).get(0);
+
+        SheetMetadata people = sheet("People", 12, 4);
+        people.setHeaders(List.of("Name", "Email Address", "", "TRUE"));
+        SheetMetadata empty = sheet("Empty", 1, 1);
+        empty.setHeaders(List.of());
+        assertEquals(List.of(people, empty), metadata.getSheets());
+    }
+
+    @Test
+    void readsEveryWorkbookOfAZip() throws IOException {
+
+        Path xlsx = tempDir.resolve("first.xlsx");
+        Path xls = tempDir.resolve("second.xls");
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream outputStream = Files.newOutputStream(xlsx)) {
+            fill(workbook.createSheet("Orders"), 0, 5, 3);
+            workbook.write(outputStream);
+        }
+        try (HSSFWorkbook workbook = new HSSFWorkbook(); OutputStream outputStream = Files.newOutputStream(xls)) {
+            fill(workbook.createSheet("Returns"), 0, 2, 2);
+            workbook.write(outputStream);
+        }
+
+        Path path = tempDir.resolve("workbooks.zip");
+
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(path))) {
+            putEntry(zip, "first.xlsx", Files.readAllBytes(xlsx));
+            putEntry(zip, "notes.txt", "not a workbook");
+            putEntry(zip, "nested/second.xls", Files.readAllBytes(xls));
+        }
+
+        List<WorkbookMetadata> metadata = WorkbookMetadataUtil.getMetadata(path.toString());
+
+        assertEquals(List.of("first.xlsx", "nested/second.xls"),
+                metadata.stream().map(WorkbookMetadata::getFileName).collect(Collectors.toList()));
+        assertEquals(List.of("Orders", 5, 3),
+                List.of(metadata.get(0).getSheets().get(0).getName(),
+                        metadata.get(0).getSheets().get(0).getRowCount(),
+                        metadata.get(0).getSheets().get(0).getColumnCount()));
+        assertEquals(List.of(sheet("Returns", 2, 2)), metadata.get(1).getSheets());
+    }
+
+    @Test
+    void readsXlsBoundSheetNamesAndDimensions() throws IOException {
+
+        Path path = tempDir.resolve("sheets.xls");
+
+        try (HSSFWorkbook workbook = new HSSFWorkbook(); OutputStream outputStream = Files.newOutputStream(path)) {
+            fill(workbook.createSheet("Données"), 0, 3, 2);
+            // characters outside Latin-1 make the BoundSheet name double byte
+            fill(workbook.createSheet("売上 2024 ✓"), 0, 10, 5);
+            workbook.write(outputStream);
+        }
+
+        WorkbookMetadata metadata = WorkbookMetadataUtil.getMetadata(path.toString()).get(0);
+
+        assertEquals("sheets.xls", metadata.getFileName());
+        assertEquals(List.of(
+                sheet("Données", 3, 2),
+                sheet("売上 2024 ✓", 10, 5)
+        ), metadata.getSheets());
+    }
+
+    @Test
+    void readsXlsbSheetNamesAndDimensions() throws IOException {
+
+        Path path = tempDir.resolve("sheets.xlsb");
+
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(path))) {
+
+            putEntry(zip, "[Content_Types].xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                    "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+                    "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+                    "<Default Extension=\"bin\" ContentType=\"application/vnd.ms-excel.sheet.binary.macroEnabled.main\"/>" +
+                    "<Override PartName=\"/xl/worksheets/sheet1.bin\" ContentType=\"application/vnd.ms-excel.worksheet\"/>" +
+                    "<Override PartName=\"/xl/worksheets/sheet2.bin\" ContentType=\"application/vnd.ms-excel.worksheet\"/>" +
+                    "</Types>");
+            putEntry(zip, "_rels/.rels", relationships(
+                    relationship("rId1", "officeDocument", "xl/workbook.bin")));
+            putEntry(zip, "xl/_rels/workbook.bin.rels", relationships(
+                    relationship("rId1", "worksheet", "worksheets/sheet1.bin") +
+                    relationship("rId2", "worksheet", "worksheets/sheet2.bin")));
+
+            ByteArrayOutputStream workbook = new ByteArrayOutputStream();
+            writeRecord(workbook, BRT_BEGIN_BOOK, new byte[0]);
+            writeRecord(workbook, BRT_BEGIN_BUNDLE_SHS, new byte[0]);
+            writeRecord(workbook, BRT_BUNDLE_SH, bundleSheet(1, "rId1", "Summary"));
+            writeRecord(workbook, BRT_BUNDLE_SH, bundleSheet(2, "rId2", "売上"));
+            writeRecord(workbook, BRT_END_BUNDLE_SHS, new byte[0]);
+            writeRecord(workbook, BRT_END_BOOK, new byte[0]);
+            putEntry(zip, "xl/workbook.bin", workbook.toByteArray());
+
+            putEntry(zip, "xl/worksheets/sheet1.bin", worksheet(0, 41, 0, 6));
+            putEntry(zip, "xl/worksheets/sheet2.bin", worksheet(0, 199, 2, 129));
+        }
+
+        WorkbookMetadata metadata = WorkbookMetadataUtil.getMetadata(path.toString()).get(0);
+
+        assertEquals(List.of(
+                sheet("Summary", 42, 7),
+                sheet("売上", 200, 130)
+        ), metadata.getSheets());
+    }
+
+    private static void fill(Sheet sheet, int firstRow, int rows, int columns) {
+
+        for (int i = firstRow; i < rows; i++) {
+            Row row = sheet.createRow(i);
+            for (int j = 0; j < columns; j++) {
+                row.createCell(j).setCellValue(i * columns + j);
+            }
+        }
+    }
+
+    private static SheetMetadata sheet(String name, Integer rowCount, Integer columnCount) {
+
+        return SheetMetadata.builder().name(name).rowCount(rowCount).columnCount(columnCount).build();
+    }
+
+    private static byte[] worksheet(int firstRow, int lastRow, int firstColumn, int lastColumn) throws IOException {
+
+        ByteArrayOutputStream worksheet = new ByteArrayOutputStream();
+
+        writeRecord(worksheet, BRT_BEGIN_SHEET, new byte[0]);
+        // a record the dimension scan has to skip over
+        writeRecord(worksheet, BRT_WS_PROP, new byte[200]);
+        writeRecord(worksheet, BRT_WS_DIM, concat(int32(firstRow), int32(lastRow), int32(firstColumn), int32(lastColumn)));
+        writeRecord(worksheet, BRT_BEGIN_SHEET_DATA, new byte[0]);
+        writeRecord(worksheet, BRT_END_SHEET_DATA, new byte[0]);
+        writeRecord(worksheet, BRT_END_SHEET, new byte[0]);
+
+        return worksheet.toByteArray();
+    }
+
+    private static byte[] bundleSheet(int tabId, String relationshipId, String name) {
+
+        return concat(int32(0), int32(tabId), wideString(relationshipId), wideString(name));
+    }
+
+    /**
+     * Record type and size are both variable length, 7 bits per byte with the high bit marking a continuation
+     */
+    private static void writeRecord(ByteArrayOutputStream outputStream, int type, byte[] data) throws IOException {
+
+        writeVariableLength(outputStream, type);
+        writeVariableLength(outputStream, data.length);
+        outputStream.write(data);
+    }
+
+    private static void writeVariableLength(ByteArrayOutputStream outputStream, int value) {
+
+        do {
+            int next = value & 0x7F;
+            value >>>= 7;
+            outputStream.write(value == 0 ? next : next | 0x80);
+        } while (value != 0);
+    }
+
+    private static byte[] wideString(String value) {
+
+        return concat(int32(value.length()), value.getBytes(StandardCharsets.UTF_16LE));
+    }
+
+    private static byte[] int32(int value) {
+
+        return new byte[]{(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24)};
+    }
+
+    private static byte[] concat(byte[]... parts) {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        for (byte[] part : parts) {
+            outputStream.writeBytes(part);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static String relationships(String relationships) {
+
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+                relationships +
+                "</Relationships>";
+    }
+
+    private static String relationship(String id, String type, String target) {
+
+        return "<Relationship Id=\"" + id + "\" Type=\"" + RELATIONSHIPS + "/" + type + "\" Target=\"" + target + "\"/>";
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, String content) throws IOException {
+
+        putEntry(zip, name, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+}